@@ -0,0 +1,191 @@
+package com.goit.hotelonlinebooking.controller;
+
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// CompletableFuture facade over a Controller. Searches run on the search executor; bookings and cancellations go to
+// the writer that owns the hotel (hotel id modulo the writer count), so the writes of one hotel are applied one after
+// another by a single thread while other hotels proceed on the other writers. Since the queue already keeps them
+// apart, writers use the try* methods of the Controller and never take a hotel lock; a write made meanwhile through
+// the Controller itself is still safe and just makes one of the two fail. Each writer has a bounded queue: when it
+// is full, a write waits up to the offer timeout and then fails with RejectedExecutionException.
+public class AsyncController implements AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final Runnable STOP = () -> {
+    };
+
+    private final Controller controller;
+    private final Executor searchExecutor;
+    private final Writer[] writers;
+    private final long offerTimeoutNanos;
+    private volatile boolean closed;
+
+    public AsyncController(Controller controller) {
+        this(controller, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY, 0, TimeUnit.MILLISECONDS,
+                ForkJoinPool.commonPool());
+    }
+
+    public AsyncController(Controller controller, int writerCount, int queueCapacity, long offerTimeout, TimeUnit unit,
+                           Executor searchExecutor) {
+        if (writerCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("writerCount and queueCapacity must be positive");
+        }
+        this.controller = controller;
+        this.searchExecutor = searchExecutor;
+        this.offerTimeoutNanos = unit.toNanos(offerTimeout);
+        this.writers = new Writer[writerCount];
+        for (int i = 0; i < writerCount; i++) {
+            this.writers[i] = new Writer(i, queueCapacity);
+            this.writers[i].start();
+        }
+    }
+
+    public CompletableFuture<List<Room>> findRoom(String session, RoomQuery query) {
+        return CompletableFuture.supplyAsync(() -> this.controller.findRoom(session, query), this.searchExecutor);
+    }
+
+    public CompletableFuture<List<Room>> getFreeRoomsByHotel(String session, String hotelName) {
+        return CompletableFuture.supplyAsync(() -> this.controller.getFreeRoomsByHotel(session, hotelName),
+                this.searchExecutor);
+    }
+
+    public CompletableFuture<List<Hotel>> findHotelByCity(String session, String hotelCity) {
+        return CompletableFuture.supplyAsync(() -> this.controller.findHotelByCity(session, hotelCity),
+                this.searchExecutor);
+    }
+
+    public CompletableFuture<Outcome> bookRoom(String session, int roomId, int hotelId) {
+        return write(hotelId, () -> this.controller.tryBookRoom(session, roomId, hotelId));
+    }
+
+    public CompletableFuture<Outcome> bookRooms(String session, int[] roomIds, int hotelId) {
+        int[] copy = roomIds.clone();
+        return write(hotelId, () -> this.controller.tryBookRooms(session, copy, hotelId));
+    }
+
+    public CompletableFuture<Outcome> cancelReservation(String session, int roomId, int hotelId) {
+        return write(hotelId, () -> this.controller.tryCancelReservation(session, roomId, hotelId));
+    }
+
+    public CompletableFuture<Outcome> cancelReservations(String session, int[] roomIds, int hotelId) {
+        int[] copy = roomIds.clone();
+        return write(hotelId, () -> this.controller.tryCancelReservations(session, copy, hotelId));
+    }
+
+    // writes accepted but not yet started, over all writers
+    public int getQueuedWrites() {
+        int queued = 0;
+        for (Writer writer : this.writers) {
+            queued += writer.queue.size();
+        }
+        return queued;
+    }
+
+    public Controller getController() {
+        return controller;
+    }
+
+    // writes already queued are still applied; writes submitted from now on fail. Every writer is told to stop even
+    // if the calling thread is interrupted; an interrupt only cuts the wait for the queued writes short, and is kept
+    @Override
+    public void close() {
+        this.closed = true;
+        boolean interrupted = false;
+        for (Writer writer : this.writers) {
+            while (true) {
+                try {
+                    writer.queue.put(STOP);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (!interrupted) {
+            try {
+                for (Writer writer : this.writers) {
+                    writer.join();
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<T> write(int hotelId, Supplier<T> action) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (this.closed) {
+            future.completeExceptionally(new RejectedExecutionException("Booking pipeline is closed"));
+            return future;
+        }
+        Writer writer = this.writers[Math.floorMod(hotelId, this.writers.length)];
+        Runnable task = () -> {
+            try {
+                future.complete(action.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        boolean accepted;
+        try {
+            accepted = this.offerTimeoutNanos == 0 ? writer.queue.offer(task)
+                    : writer.queue.offer(task, this.offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            future.completeExceptionally(new RejectedExecutionException("Booking queue of hotel " + hotelId + " is full"));
+        } else if (writer.stopped && writer.queue.remove(task)) {
+            // queued behind STOP after the writer's last drain; nobody would ever run it
+            future.completeExceptionally(new RejectedExecutionException("Booking pipeline is closed"));
+        }
+        return future;
+    }
+
+    private static class Writer extends Thread {
+        private final BlockingQueue<Runnable> queue;
+        private volatile boolean stopped;
+
+        Writer(int number, int queueCapacity) {
+            super("booking-writer-" + number);
+            setDaemon(true);
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (Runnable task = this.queue.take(); task != STOP; task = this.queue.take()) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.stopped = true;
+            Runnable late;
+            while ((late = this.queue.poll()) != null) {
+                if (late != STOP) {
+                    late.run();
+                }
+            }
+        }
+    }
+}
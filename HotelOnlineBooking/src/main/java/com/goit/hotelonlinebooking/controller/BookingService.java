@@ -0,0 +1,105 @@
+package com.goit.hotelonlinebooking.controller;
+
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// request entry point for the operations of testing/Main: every call runs as its own task on the request executor
+// and simply blocks inside the Controller. The default executor starts one virtual thread per request, so requests
+// waiting on hotel locks or on a WAL sync hold no platform thread. The locks on the request path (Hotel, AbstractDAO,
+// WalStorage, SessionRegistry) are java.util.concurrent locks rather than synchronized, which is what lets a blocked
+// virtual thread unmount.
+public class BookingService implements AutoCloseable {
+
+    private final Controller controller;
+    private final ExecutorService executor;
+
+    public BookingService(Controller controller) {
+        this(controller, newRequestExecutor());
+    }
+
+    public BookingService(Controller controller, ExecutorService executor) {
+        this.controller = controller;
+        this.executor = executor;
+    }
+
+    // one virtual thread per task
+    public static ExecutorService newRequestExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public CompletableFuture<Outcome> userRegistration(User user) {
+        return CompletableFuture.supplyAsync(() -> this.controller.userRegistration(user), this.executor);
+    }
+
+    public CompletableFuture<String> openSession(int userId) {
+        return CompletableFuture.supplyAsync(() -> this.controller.openSession(userId), this.executor);
+    }
+
+    public CompletableFuture<Void> closeSession(String session) {
+        return CompletableFuture.runAsync(() -> this.controller.closeSession(session), this.executor);
+    }
+
+    public CompletableFuture<List<Hotel>> findHotelByCity(String session, String hotelCity) {
+        return CompletableFuture.supplyAsync(() -> this.controller.findHotelByCity(session, hotelCity), this.executor);
+    }
+
+    public CompletableFuture<List<Hotel>> findHotelByHotelName(String session, String hotelName) {
+        return CompletableFuture.supplyAsync(() -> this.controller.findHotelByHotelName(session, hotelName),
+                this.executor);
+    }
+
+    public CompletableFuture<List<Room>> getFreeRoomsByHotel(String session, String hotelName) {
+        return CompletableFuture.supplyAsync(() -> this.controller.getFreeRoomsByHotel(session, hotelName),
+                this.executor);
+    }
+
+    public CompletableFuture<Outcome> bookRoom(String session, int roomId, int hotelId) {
+        return CompletableFuture.supplyAsync(() -> this.controller.bookRoom(session, roomId, hotelId), this.executor);
+    }
+
+    public CompletableFuture<Outcome> cancelReservation(String session, int roomId, int hotelId) {
+        return CompletableFuture.supplyAsync(
+                () -> this.controller.cancelReservations(session, new int[]{roomId}, hotelId), this.executor);
+    }
+
+    public CompletableFuture<List<Room>> findRoom(String session, Map<String, String> params) {
+        Map<String, String> copy = new HashMap<>(params);
+        return CompletableFuture.supplyAsync(() -> this.controller.findRoom(session, copy), this.executor);
+    }
+
+    public CompletableFuture<List<Room>> findRoom(String session, RoomQuery query) {
+        return CompletableFuture.supplyAsync(() -> this.controller.findRoom(session, query), this.executor);
+    }
+
+    // action runs on the request's thread, once per room, until it returns false
+    public CompletableFuture<Outcome> forEachRoom(String session, RoomQuery query, Predicate<? super Room> action) {
+        return CompletableFuture.supplyAsync(() -> this.controller.forEachRoom(session, query, action), this.executor);
+    }
+
+    public Controller getController() {
+        return controller;
+    }
+
+    // lets the requests already submitted finish; an interrupt stops the wait for them and is kept
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
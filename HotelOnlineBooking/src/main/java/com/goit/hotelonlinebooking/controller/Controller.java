@@ -1,202 +1,700 @@
 package com.goit.hotelonlinebooking.controller;
 
 import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.ReservationDAO;
+import com.goit.hotelonlinebooking.dao.RoomCursor;
+import com.goit.hotelonlinebooking.dao.RoomQuery;
 import com.goit.hotelonlinebooking.dao.UserDAO;
 import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Reservation;
 import com.goit.hotelonlinebooking.entity.Room;
 import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Metrics;
+import com.goit.hotelonlinebooking.metrics.Operation;
+import com.goit.hotelonlinebooking.metrics.Outcome;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public class Controller {
 
-    private HotelDAO hotelDAO = new HotelDAO();
-    private UserDAO userDAO = new UserDAO();
+    public static final int DEFAULT_CACHE_CAPACITY = 1024;
+
+    private HotelDAO hotelDAO;
+    private UserDAO userDAO;
+    private ReservationDAO reservationDAO;
+    private SessionRegistry sessionRegistry = new SessionRegistry();
     private CurrentUser currentUser = new CurrentUser();
-    private boolean flagLogin;
+    // outcome counters and latencies of every operation; the DAOs report their own rejections into it as well
+    private final Metrics metrics = new Metrics();
+    // session opened by login(int) and used by the methods that take no session token
+    private volatile String loginSession;
+    // single-room bookings and cancellations as a bare compare-and-set on the room instead of under the hotel lock
+    private final boolean optimisticBooking;
+    // findHotelByCity() results by city and getFreeRoomsByHotel() results by hotel name. The bookings and
+    // cancellations made here and the hotels saved or deleted in the HotelDAO drop exactly the entries they change
+    private final QueryCache<String, List<Hotel>> hotelsByCity;
+    private final QueryCache<String, List<Room>> freeRoomsByHotel;
 
-    public void userRegistration(User user) {
-        if (this.userDAO.checkRegistration(user)) {
-            this.userDAO.save(user);
-            System.out.println("User " + user.getName() + " " + user.getLastName() + " successfully registered");
-        }
+    public Controller() {
+        this(new HotelDAO(), new UserDAO());
+    }
+
+    public Controller(HotelDAO hotelDAO, UserDAO userDAO) {
+        this(hotelDAO, userDAO, new ReservationDAO());
+    }
+
+    public Controller(HotelDAO hotelDAO, UserDAO userDAO, ReservationDAO reservationDAO) {
+        this(hotelDAO, userDAO, reservationDAO, false);
+    }
+
+    // optimisticBooking makes bookRoom() and cancelReservation() lock-free: a conflict is just a failed
+    // compare-and-set. The batches and the dated bookings still take the hotel lock in both modes
+    public Controller(HotelDAO hotelDAO, UserDAO userDAO, ReservationDAO reservationDAO, boolean optimisticBooking) {
+        this(hotelDAO, userDAO, reservationDAO, optimisticBooking, DEFAULT_CACHE_CAPACITY);
+    }
+
+    // cacheCapacity bounds each of the two search caches; 0 turns them off
+    public Controller(HotelDAO hotelDAO, UserDAO userDAO, ReservationDAO reservationDAO, boolean optimisticBooking,
+                      int cacheCapacity) {
+        this.hotelDAO = hotelDAO;
+        this.userDAO = userDAO;
+        this.reservationDAO = reservationDAO;
+        hotelDAO.setMetrics(this.metrics);
+        userDAO.setMetrics(this.metrics);
+        reservationDAO.setMetrics(this.metrics);
+        this.optimisticBooking = optimisticBooking;
+        this.hotelsByCity = new QueryCache<>(cacheCapacity);
+        this.freeRoomsByHotel = new QueryCache<>(cacheCapacity);
+        hotelDAO.setChangeListener(this::hotelChanged);
+    }
+
+    public Outcome userRegistration(User user) {
+        long start = System.nanoTime();
+        Outcome outcome = this.userDAO.register(user);
+        this.metrics.record(Operation.REGISTER, outcome, start);
+        return outcome;
     }
 
     public List<Hotel> findHotelByHotelName(String hotelName) {
-        List<Hotel> hotelList = new ArrayList<>();
-        if (this.flagLogin) {
-            hotelList = this.hotelDAO.getList().stream()
-                    .filter(n -> hotelName.equals(n.getHotelName()))
-                    .collect(Collectors.toList());
-            if (hotelList.size() != 0) {
-                return hotelList;
-            } else {
-                System.out.println("Hotel " + hotelName + " is not found");
-                return hotelList;
-            }
-        } else {
-            System.out.println("Perform user authentication. Use the method \"login\"");
-            return hotelList;
+        return findHotelByHotelName(this.loginSession, hotelName);
+    }
+
+    public List<Hotel> findHotelByHotelName(String session, String hotelName) {
+        List<Hotel> result = new ArrayList<>();
+        findHotelByHotelName(session, hotelName, result);
+        return result;
+    }
+
+    // the search variants that take a result list add the hits to it and return the outcome, so a caller that reuses
+    // its list learns why a search came back empty without anything being allocated for the answer
+    public Outcome findHotelByHotelName(String session, String hotelName, List<? super Hotel> result) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            return searched(Outcome.NOT_AUTHENTICATED, start);
         }
+        return searched(this.hotelDAO.findHotelsByName(hotelName), result, start);
     }
+
     public List<Hotel> getHotelList() {
         return hotelDAO.getList();
     }
 
     public List<Hotel> findHotelByCity(String hotelCity) {
-        List<Hotel> hotelList = new ArrayList<>();
-        if (this.flagLogin) {
-            hotelList = this.hotelDAO.getList().stream()
-                    .filter(n -> hotelCity.equals(n.getCityName()))
-                    .collect(Collectors.toList());
-            if (hotelList.size() != 0) {
-                System.out.println("A list with all the hotels in " + hotelCity);
-                return hotelList;
-            } else {
-                System.out.println("No hotels found in city: " + hotelCity); // ✅ fix here
-                return hotelList;
-            }
-        } else {
-            System.out.println("Perform user authentication. Use the method \"login\"");
-            return hotelList;
+        return findHotelByCity(this.loginSession, hotelCity);
+    }
+
+    public List<Hotel> findHotelByCity(String session, String hotelCity) {
+        List<Hotel> result = new ArrayList<>();
+        findHotelByCity(session, hotelCity, result);
+        return result;
+    }
+
+    public Outcome findHotelByCity(String session, String hotelCity, List<? super Hotel> result) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            return searched(Outcome.NOT_AUTHENTICATED, start);
+        }
+        return searched(this.hotelsByCity.get(hotelCity, this::loadHotelsByCity), result, start);
+    }
+
+    public List<Hotel> findHotelByCityPrefix(String prefix) {
+        return findHotelByCityPrefix(this.loginSession, prefix);
+    }
+
+    public List<Hotel> findHotelByCityPrefix(String session, String prefix) {
+        List<Hotel> result = new ArrayList<>();
+        findHotelByCityPrefix(session, prefix, result);
+        return result;
+    }
+
+    public Outcome findHotelByCityPrefix(String session, String prefix, List<? super Hotel> result) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            return searched(Outcome.NOT_AUTHENTICATED, start);
         }
+        return searched(this.hotelDAO.findHotelsByCityPrefix(prefix), result, start);
+    }
 
+    public List<Hotel> findHotelByHotelNamePrefix(String prefix) {
+        return findHotelByHotelNamePrefix(this.loginSession, prefix);
+    }
+
+    public List<Hotel> findHotelByHotelNamePrefix(String session, String prefix) {
+        List<Hotel> result = new ArrayList<>();
+        findHotelByHotelNamePrefix(session, prefix, result);
+        return result;
+    }
+
+    public Outcome findHotelByHotelNamePrefix(String session, String prefix, List<? super Hotel> result) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            return searched(Outcome.NOT_AUTHENTICATED, start);
+        }
+        return searched(this.hotelDAO.findHotelsByNamePrefix(prefix), result, start);
     }
 
     public List<Room> getFreeRoomsByHotel(String nameHotel) {
-        List<Room> list = new ArrayList<>();
-        Iterator<Hotel> iterator = this.hotelDAO.getList().iterator();
-        if (this.flagLogin) {
-            while (iterator.hasNext()) {
-                Hotel h = iterator.next();
-                if (h.getHotelName().equals(nameHotel)) {
-                    System.out.println("The hotel " + nameHotel + " has the following rooms available:");
-                    list = h.getRooms().stream()
-                            .filter(r -> r.getUserReserved() == null)
-                            .collect(Collectors.toList());
-                }
+        return getFreeRoomsByHotel(this.loginSession, nameHotel);
+    }
+
+    public List<Room> getFreeRoomsByHotel(String session, String nameHotel) {
+        List<Room> result = new ArrayList<>();
+        getFreeRoomsByHotel(session, nameHotel, result);
+        return result;
+    }
+
+    public Outcome getFreeRoomsByHotel(String session, String nameHotel, List<? super Room> result) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            return searched(Outcome.NOT_AUTHENTICATED, start);
+        }
+        List<Room> freeRooms = this.freeRoomsByHotel.get(nameHotel, this::loadFreeRooms);
+        if (freeRooms == null) {
+            return searched(Outcome.HOTEL_NOT_FOUND, start);
+        }
+        return searched(freeRooms, result, start);
+    }
+
+    public List<Room> getFreeRoomsByHotel(String nameHotel, LocalDate checkIn, LocalDate checkOut) {
+        return getFreeRoomsByHotel(this.loginSession, nameHotel, checkIn, checkOut);
+    }
+
+    public List<Room> getFreeRoomsByHotel(String session, String nameHotel, LocalDate checkIn, LocalDate checkOut) {
+        List<Room> result = new ArrayList<>();
+        getFreeRoomsByHotel(session, nameHotel, checkIn, checkOut, result);
+        return result;
+    }
+
+    public Outcome getFreeRoomsByHotel(String session, String nameHotel, LocalDate checkIn, LocalDate checkOut,
+                                       List<? super Room> result) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            return searched(Outcome.NOT_AUTHENTICATED, start);
+        }
+        Hotel h = this.hotelDAO.findHotelByName(nameHotel);
+        if (h == null) {
+            return searched(Outcome.HOTEL_NOT_FOUND, start);
+        }
+        if (!validDates(checkIn, checkOut)) {
+            return searched(Outcome.INVALID_DATES, start);
+        }
+        return searched(this.reservationDAO.findFreeRooms(h, checkIn, checkOut), result, start);
+    }
+
+    public Outcome bookRoom(int roomId, int userId, int hotelId) {
+        return bookRoomFor(this.sessionRegistry.validate(this.loginSession), roomId, hotelId, userId,
+                this.optimisticBooking);
+    }
+
+    public Outcome bookRoom(String session, int roomId, int hotelId) {
+        User sessionUser = this.sessionRegistry.validate(session);
+        return bookRoomFor(sessionUser, roomId, hotelId, sessionUser == null ? 0 : sessionUser.getId(),
+                this.optimisticBooking);
+    }
+
+    // The try* bookings and cancellations never take the hotel lock, whatever mode this controller was made with: a
+    // single room goes the optimistic way, a batch is applied by compare-and-set and undone on a conflict. They are
+    // meant for a caller that already keeps the writes of a hotel apart, like the writers of AsyncController, and are
+    // still safe next to the locking methods, only a conflict fails instead of waiting
+    public Outcome tryBookRoom(String session, int roomId, int hotelId) {
+        User sessionUser = this.sessionRegistry.validate(session);
+        return bookRoomFor(sessionUser, roomId, hotelId, sessionUser == null ? 0 : sessionUser.getId(), true);
+    }
+
+    public Outcome tryBookRooms(String session, int[] roomIds, int hotelId) {
+        User sessionUser = this.sessionRegistry.validate(session);
+        return bookRoomsFor(sessionUser, roomIds, hotelId, sessionUser == null ? 0 : sessionUser.getId(), true);
+    }
+
+    public Outcome tryCancelReservation(String session, int roomId, int hotelId) {
+        return cancelReservationFor(session, roomId, hotelId, true);
+    }
+
+    public Outcome tryCancelReservations(String session, int[] roomIds, int hotelId) {
+        return cancelReservationsFor(session, roomIds, hotelId, true);
+    }
+
+    private Outcome bookRoomFor(User sessionUser, int roomId, int hotelId, int userId, boolean optimistic) {
+        long start = System.nanoTime();
+        Outcome outcome;
+        Hotel foundHotel;
+        User foundUser;
+        if (sessionUser == null) {
+            outcome = Outcome.NOT_AUTHENTICATED;
+        } else if ((foundHotel = this.hotelDAO.objectById(hotelId)) == null) {
+            outcome = Outcome.HOTEL_NOT_FOUND;
+        } else if (foundHotel.getRoomById(roomId) == null) {
+            outcome = Outcome.ROOM_NOT_FOUND;
+        } else if ((foundUser = this.userDAO.objectById(userId)) == null) {
+            outcome = Outcome.USER_NOT_FOUND;
+        } else if ((outcome = reserveWithoutDates(foundHotel, roomId, foundUser, optimistic)) == Outcome.OK) {
+            reservationsChanged(foundHotel, roomId);
+        }
+        this.metrics.record(Operation.BOOK, outcome, start);
+        return outcome;
+    }
+
+    // a booking without dates holds the room from now on, so it is refused while the room has a dated reservation
+    // that has not ended yet, just as a dated booking is refused while the room is held without dates.
+    // The optimistic way reserves first and reads the schedule after, where a dated booking saves first and reads the
+    // room after: of two racing bookings at least one sees the other and backs off
+    private Outcome reserveWithoutDates(Hotel hotel, int roomId, User user, boolean optimistic) {
+        if (optimistic) {
+            if (!hotel.tryReserveRoom(roomId, user)) {
+                return Outcome.ALREADY_RESERVED;
+            }
+            if (hasDatedReservations(hotel, roomId)) {
+                hotel.getRoomById(roomId).compareAndSetUserReserved(user, null);
+                // the free rooms may have been cached while the room was held
+                this.freeRoomsByHotel.invalidate(hotel.getHotelName());
+                return Outcome.RESERVED_WITH_DATES;
             }
-            if (list.isEmpty()) {
-                System.out.println("Hotel with a name " + nameHotel + " not found");
+            return Outcome.OK;
+        }
+        hotel.getLock().lock();
+        try {
+            if (hasDatedReservations(hotel, roomId)) {
+                return Outcome.RESERVED_WITH_DATES;
             }
-            return list;
+            return hotel.reserveRoom(roomId, user) ? Outcome.OK : Outcome.ALREADY_RESERVED;
+        } finally {
+            hotel.getLock().unlock();
+        }
+    }
+
+    private boolean hasDatedReservations(Hotel hotel, int roomId) {
+        return this.reservationDAO.isReservedAfter(hotel.getId(), roomId, LocalDate.now());
+    }
+
+    // books every room in roomIds or none of them
+    public Outcome bookRooms(int[] roomIds, int userId, int hotelId) {
+        return bookRoomsFor(this.sessionRegistry.validate(this.loginSession), roomIds, hotelId, userId, false);
+    }
+
+    public Outcome bookRooms(String session, int[] roomIds, int hotelId) {
+        User sessionUser = this.sessionRegistry.validate(session);
+        return bookRoomsFor(sessionUser, roomIds, hotelId, sessionUser == null ? 0 : sessionUser.getId(), false);
+    }
+
+    private Outcome bookRoomsFor(User sessionUser, int[] roomIds, int hotelId, int userId, boolean optimistic) {
+        long start = System.nanoTime();
+        Outcome outcome;
+        Hotel foundHotel;
+        User foundUser;
+        if (sessionUser == null) {
+            outcome = Outcome.NOT_AUTHENTICATED;
+        } else if ((foundHotel = this.hotelDAO.objectById(hotelId)) == null) {
+            outcome = Outcome.HOTEL_NOT_FOUND;
+        } else if ((foundUser = this.userDAO.objectById(userId)) == null) {
+            outcome = Outcome.USER_NOT_FOUND;
         } else {
-            System.out.println("Perform user authentication. Use the method \"login\"");
-            return list;
-        }
-    }
-
-    public void bookRoom(int roomId, int userId, int hotelId) {
-        if (this.flagLogin) {
-            Hotel foundHotel = this.hotelDAO.objectById(hotelId);
-            if (foundHotel != null) {
-                Room foundRoom;
-                List<Room> listFoundRooms = foundHotel.getRooms().stream()
-                        .filter(room -> room.getId() == roomId)
-                        .collect(Collectors.toList());
-                if (listFoundRooms.size() == 0 || listFoundRooms.size() >= 2) {
-                    System.out.println("Error. With room ID: " + roomId + " found more that 1 room...");
-                    foundRoom = null;
-                } else {
-                    foundRoom = listFoundRooms.get(0);
+            if (optimistic) {
+                outcome = tryReserveRoomsWithoutDates(foundHotel, roomIds, foundUser);
+            } else {
+                foundHotel.getLock().lock();
+                try {
+                    outcome = reserveRoomsWithoutDates(foundHotel, roomIds, foundUser);
+                } finally {
+                    foundHotel.getLock().unlock();
                 }
-                if (foundRoom != null) {
-                    User foundUser = this.userDAO.objectById(userId);
-                    if (foundUser != null) {
-                        foundRoom.setUserReserved(foundUser);
-                        System.out.println("Room reserved successfully");
+            }
+            if (outcome == Outcome.OK) {
+                reservationsChanged(foundHotel, roomIds);
+            }
+        }
+        this.metrics.record(Operation.BOOK, outcome, start);
+        return outcome;
+    }
 
-                    }
+    // under the hotel lock, which keeps dated bookings of these rooms out until it returns
+    private Outcome reserveRoomsWithoutDates(Hotel hotel, int[] roomIds, User user) {
+        for (int roomId : roomIds) {
+            if (hasDatedReservations(hotel, roomId)) {
+                return Outcome.RESERVED_WITH_DATES;
+            }
+        }
+        int failed = hotel.reserveRooms(roomIds, user);
+        return failed < 0 ? Outcome.OK : reserveFailure(hotel, roomIds[failed]);
+    }
+
+    // the optimistic way of reserveWithoutDates(), for every room of the batch
+    private Outcome tryReserveRoomsWithoutDates(Hotel hotel, int[] roomIds, User user) {
+        int failed = hotel.tryReserveRooms(roomIds, user);
+        if (failed >= 0) {
+            return reserveFailure(hotel, roomIds[failed]);
+        }
+        for (int roomId : roomIds) {
+            if (hasDatedReservations(hotel, roomId)) {
+                for (int reserved : roomIds) {
+                    hotel.getRoomById(reserved).compareAndSetUserReserved(user, null);
                 }
-            } else {
-                System.out.println("Sorry, hotel not found");
+                this.freeRoomsByHotel.invalidate(hotel.getHotelName());
+                return Outcome.RESERVED_WITH_DATES;
             }
-        } else {
-            System.out.println("Perform user authentication. Use the method \"login\"");
         }
+        return Outcome.OK;
+    }
+
+    private static Outcome reserveFailure(Hotel hotel, int roomId) {
+        Room foundRoom = hotel.getRoomById(roomId);
+        return foundRoom == null ? Outcome.ROOM_NOT_FOUND
+                : foundRoom.getUserReserved() != null ? Outcome.ALREADY_RESERVED : Outcome.DUPLICATE_ROOM;
+    }
+
+    public Outcome bookRoom(int roomId, int userId, int hotelId, LocalDate checkIn, LocalDate checkOut) {
+        return bookRoomFor(this.sessionRegistry.validate(this.loginSession), roomId, hotelId, userId, checkIn, checkOut);
     }
 
-    public void cancelReservation(long roomId, int hotelId) {
-        if (this.flagLogin) {
-            Hotel foundHotel = this.hotelDAO.objectById(hotelId);
-            if (foundHotel != null) {
-                Room foundRoom;
-                List<Room> listFoundRooms = foundHotel.getRooms().stream()
-                        .filter(room -> room.getId() == roomId)
-                        .collect(Collectors.toList());
-                if (listFoundRooms.size() == 0 || listFoundRooms.size() >= 2) {
-                    System.out.println("Error. With room ID: " + roomId + " found more that 1 room...");
-                    foundRoom = null;
+    public Outcome bookRoom(String session, int roomId, int hotelId, LocalDate checkIn, LocalDate checkOut) {
+        User sessionUser = this.sessionRegistry.validate(session);
+        return bookRoomFor(sessionUser, roomId, hotelId, sessionUser == null ? 0 : sessionUser.getId(), checkIn, checkOut);
+    }
+
+    private Outcome bookRoomFor(User sessionUser, int roomId, int hotelId, int userId, LocalDate checkIn, LocalDate checkOut) {
+        long start = System.nanoTime();
+        Outcome outcome;
+        Hotel foundHotel;
+        Room foundRoom;
+        User foundUser;
+        if (sessionUser == null) {
+            outcome = Outcome.NOT_AUTHENTICATED;
+        } else if ((foundHotel = this.hotelDAO.objectById(hotelId)) == null) {
+            outcome = Outcome.HOTEL_NOT_FOUND;
+        } else if ((foundRoom = foundHotel.getRoomById(roomId)) == null) {
+            outcome = Outcome.ROOM_NOT_FOUND;
+        } else if ((foundUser = this.userDAO.objectById(userId)) == null) {
+            outcome = Outcome.USER_NOT_FOUND;
+        } else if (!validDates(checkIn, checkOut)) {
+            outcome = Outcome.INVALID_DATES;
+        } else {
+            foundHotel.getLock().lock();
+            try {
+                if (foundRoom.getUserReserved() != null) {
+                    outcome = Outcome.RESERVED_WITHOUT_DATES;
                 } else {
-                    foundRoom = listFoundRooms.get(0);
+                    Reservation reservation = new Reservation(this.reservationDAO.nextId(), hotelId, roomId,
+                            foundUser, checkIn, checkOut);
+                    this.reservationDAO.save(reservation);
+                    outcome = this.reservationDAO.objectById(reservation.getId()) == reservation
+                            ? Outcome.OK : Outcome.DATES_TAKEN;
+                    // an optimistic booking without dates does not take the hotel lock; see reserveWithoutDates()
+                    if (outcome == Outcome.OK && foundRoom.getUserReserved() != null) {
+                        this.reservationDAO.delete(reservation);
+                        outcome = Outcome.RESERVED_WITHOUT_DATES;
+                    }
                 }
-                if (foundRoom != null && foundRoom.getUserReserved() != null) {
-                    foundRoom.setUserReserved(null);
-                    System.out.println("Room cancelled successfully");
+            } finally {
+                foundHotel.getLock().unlock();
+            }
+        }
+        this.metrics.record(Operation.BOOK, outcome, start);
+        return outcome;
+    }
 
-                }
+    public Outcome cancelReservation(long roomId, int hotelId) {
+        return cancelReservation(this.loginSession, roomId, hotelId);
+    }
+
+    public Outcome cancelReservation(String session, long roomId, int hotelId) {
+        return cancelReservationFor(session, roomId, hotelId, this.optimisticBooking);
+    }
+
+    private Outcome cancelReservationFor(String session, long roomId, int hotelId, boolean optimistic) {
+        long start = System.nanoTime();
+        Outcome outcome;
+        Hotel foundHotel;
+        if (this.sessionRegistry.validate(session) == null) {
+            outcome = Outcome.NOT_AUTHENTICATED;
+        } else if ((foundHotel = this.hotelDAO.objectById(hotelId)) == null) {
+            outcome = Outcome.HOTEL_NOT_FOUND;
+        } else if (roomId < Integer.MIN_VALUE || roomId > Integer.MAX_VALUE || foundHotel.getRoomById((int) roomId) == null) {
+            outcome = Outcome.ROOM_NOT_FOUND;
+        } else if (optimistic ? foundHotel.tryReleaseRoom((int) roomId)
+                : foundHotel.releaseRoom((int) roomId)) {
+            reservationsChanged(foundHotel, (int) roomId);
+            outcome = Outcome.OK;
+        } else {
+            outcome = Outcome.NOT_RESERVED;
+        }
+        this.metrics.record(Operation.CANCEL, outcome, start);
+        return outcome;
+    }
+
+    // cancels every room in roomIds or none of them
+    public Outcome cancelReservations(int[] roomIds, int hotelId) {
+        return cancelReservations(this.loginSession, roomIds, hotelId);
+    }
+
+    public Outcome cancelReservations(String session, int[] roomIds, int hotelId) {
+        return cancelReservationsFor(session, roomIds, hotelId, false);
+    }
+
+    private Outcome cancelReservationsFor(String session, int[] roomIds, int hotelId, boolean optimistic) {
+        long start = System.nanoTime();
+        Outcome outcome;
+        Hotel foundHotel;
+        if (this.sessionRegistry.validate(session) == null) {
+            outcome = Outcome.NOT_AUTHENTICATED;
+        } else if ((foundHotel = this.hotelDAO.objectById(hotelId)) == null) {
+            outcome = Outcome.HOTEL_NOT_FOUND;
+        } else {
+            int failed = optimistic ? foundHotel.tryReleaseRooms(roomIds) : foundHotel.releaseRooms(roomIds);
+            if (failed < 0) {
+                reservationsChanged(foundHotel, roomIds);
+                outcome = Outcome.OK;
             } else {
-                System.out.println("Sorry, hotel not found");
+                Room foundRoom = foundHotel.getRoomById(roomIds[failed]);
+                outcome = foundRoom == null ? Outcome.ROOM_NOT_FOUND
+                        : foundRoom.getUserReserved() == null ? Outcome.NOT_RESERVED : Outcome.DUPLICATE_ROOM;
             }
+        }
+        this.metrics.record(Operation.CANCEL, outcome, start);
+        return outcome;
+    }
+
+    public Outcome cancelReservation(int roomId, int hotelId, LocalDate checkIn) {
+        return cancelReservation(this.loginSession, roomId, hotelId, checkIn);
+    }
+
+    public Outcome cancelReservation(String session, int roomId, int hotelId, LocalDate checkIn) {
+        long start = System.nanoTime();
+        Outcome outcome;
+        Reservation reservation;
+        if (this.sessionRegistry.validate(session) == null) {
+            outcome = Outcome.NOT_AUTHENTICATED;
+        } else if ((reservation = this.reservationDAO.findReservation(hotelId, roomId, checkIn)) == null) {
+            outcome = Outcome.RESERVATION_NOT_FOUND;
         } else {
-            System.out.println("Perform user authentication. Use the method \"login\"");
+            this.reservationDAO.delete(reservation);
+            outcome = Outcome.OK;
         }
+        this.metrics.record(Operation.CANCEL, outcome, start);
+        return outcome;
     }
 
-    public List findRoom(Map<String, String> params) {
-        List<Room> roomList = new ArrayList<>();
-        if (this.flagLogin) {
-            try {
-                for (Map.Entry<String, String> entry : params.entrySet()) {
-                    String fieldName = entry.getKey();
-                    String fieldValue = entry.getValue();
-                    switch (fieldName) {
-                        case "price":
-                            roomList = this.hotelDAO.getAllRoom().stream()
-                                    .filter(r -> r.getPrice() == Integer.valueOf(fieldValue))
-                                    .collect(Collectors.toList());
-                            break;
-                        case "floor":
-                            roomList.addAll(this.hotelDAO.getAllRoom().stream()
-                                    .filter(x -> x.getFloor() == Integer.valueOf(fieldValue))
-                                    .collect(Collectors.toList()));
-                            break;
-                        case "capacity":
-                            roomList.addAll(this.hotelDAO.getAllRoom().stream()
-                                    .filter(x -> x.getCapacity() == Integer.valueOf(fieldValue))
-                                    .collect(Collectors.toList()));
-                            break;
-                        default:
-                            System.out.println("Parameter \'" + fieldName + "\' given to method FindRoom() is wrong. Interrupted");
-                    }
+    public List<Room> findRoom(Map<String, String> params) {
+        return findRoom(this.loginSession, params);
+    }
+
+    public List<Room> findRoom(String session, Map<String, String> params) {
+        List<Room> result = new ArrayList<>();
+        findRoom(session, params, result);
+        return result;
+    }
+
+    public Outcome findRoom(String session, Map<String, String> params, List<? super Room> result) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            return searched(Outcome.NOT_AUTHENTICATED, start);
+        }
+        RoomQuery query = new RoomQuery();
+        try {
+            for (Map.Entry<String, String> entry : params.entrySet()) {
+                String fieldValue = entry.getValue();
+                switch (entry.getKey()) {
+                    case "price":
+                        query.price(Integer.valueOf(fieldValue));
+                        break;
+                    case "floor":
+                        query.floor(Integer.valueOf(fieldValue));
+                        break;
+                    case "capacity":
+                        query.capacity(Integer.valueOf(fieldValue));
+                        break;
+                    case "city":
+                        query.inCity(fieldValue);
+                        break;
+                    case "hotel":
+                        query.inHotel(fieldValue);
+                        break;
+                    default:
+                        return searched(Outcome.INVALID_PARAMETER, start);
                 }
-                return roomList;
-            } catch (NumberFormatException | NullPointerException e) {
-                System.out.println("Input parameters should be of type string");
-                return roomList;
             }
-        } else {
-            System.out.println("Perform user authentication. Use the method \"login\"");
-            return roomList;
+        } catch (NumberFormatException | NullPointerException e) {
+            return searched(Outcome.INVALID_PARAMETER, start);
         }
+        return searched(this.hotelDAO.findRoomList(query), result, start);
     }
 
-    public void login(int id) {
-        this.flagLogin = false;
-        try {
-            this.currentUser.setCurrentUser(this.userDAO.objectById(id));
-            this.flagLogin = true;
-        } catch (NullPointerException e) {
-            System.out.println("Sorry. This user does not exist");
+    public List<Room> findRoom(RoomQuery query) {
+        return findRoom(this.loginSession, query);
+    }
+
+    public List<Room> findRoom(String session, RoomQuery query) {
+        List<Room> result = new ArrayList<>();
+        findRoom(session, query, result);
+        return result;
+    }
+
+    public Outcome findRoom(String session, RoomQuery query, List<? super Room> result) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            return searched(Outcome.NOT_AUTHENTICATED, start);
+        }
+        return searched(this.hotelDAO.findRoomList(query), result, start);
+    }
+
+    // the count cheapest free rooms of a city that sleep at least minCapacity, from the price index
+    public List<Room> findCheapestFreeRooms(String session, String cityName, int minCapacity, int count) {
+        return findRoom(session, new RoomQuery().inCity(cityName).capacityAtLeast(minCapacity).onlyFree()
+                .cheapestFirst().page(0, count));
+    }
+
+    // hands the rooms of the query to action one by one until it returns false; no result list is built and the
+    // search stops with the action. The recorded latency includes the time spent in action
+    public Outcome forEachRoom(String session, RoomQuery query, Predicate<? super Room> action) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            return searched(Outcome.NOT_AUTHENTICATED, start);
+        }
+        boolean found = false;
+        Iterator<Room> rooms = this.hotelDAO.iterateRooms(query);
+        while (rooms.hasNext()) {
+            found = true;
+            if (!action.test(rooms.next())) {
+                break;
+            }
+        }
+        return searched(found ? Outcome.OK : Outcome.NOTHING_FOUND, start);
+    }
+
+    // lazy: the search runs as the stream is consumed and stops with it. Empty when the session is not valid; only
+    // opening the stream is recorded
+    public Stream<Room> streamRooms(String session, RoomQuery query) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            searched(Outcome.NOT_AUTHENTICATED, start);
+            return Stream.empty();
+        }
+        Stream<Room> rooms = this.hotelDAO.streamRooms(query);
+        searched(Outcome.OK, start);
+        return rooms;
+    }
+
+    // null when the session is not valid; the session is checked once, when the cursor is opened
+    public RoomCursor openRoomCursor(String session, RoomQuery query) {
+        long start = System.nanoTime();
+        if (this.sessionRegistry.validate(session) == null) {
+            searched(Outcome.NOT_AUTHENTICATED, start);
+            return null;
+        }
+        RoomCursor cursor = this.hotelDAO.openCursor(query);
+        searched(cursor.hasNext() ? Outcome.OK : Outcome.NOTHING_FOUND, start);
+        return cursor;
+    }
+
+    public Outcome login(int id) {
+        long start = System.nanoTime();
+        this.sessionRegistry.close(this.loginSession);
+        this.loginSession = null;
+        User user = this.userDAO.objectById(id);
+        if (user != null) {
+            this.currentUser.setCurrentUser(user);
+            this.loginSession = this.sessionRegistry.open(user);
         }
+        Outcome outcome = user != null ? Outcome.OK : Outcome.USER_NOT_FOUND;
+        this.metrics.record(Operation.LOGIN, outcome, start);
+        return outcome;
+    }
+
+    public String openSession(int userId) {
+        long start = System.nanoTime();
+        User user = this.userDAO.objectById(userId);
+        String session = this.sessionRegistry.open(user);
+        this.metrics.record(Operation.LOGIN, user != null ? Outcome.OK : Outcome.USER_NOT_FOUND, start);
+        return session;
+    }
+
+    public void closeSession(String session) {
+        this.sessionRegistry.close(session);
+    }
+
+    public SessionRegistry getSessionRegistry() {
+        return this.sessionRegistry;
     }
 
     public List<Hotel> getAllHotel() {
         return this.hotelDAO.getList();
     }
+
+    public Metrics getMetrics() {
+        return this.metrics;
+    }
+
+    public QueryCache<String, List<Hotel>> getHotelsByCityCache() {
+        return hotelsByCity;
+    }
+
+    public QueryCache<String, List<Room>> getFreeRoomsByHotelCache() {
+        return freeRoomsByHotel;
+    }
+
+    private List<Hotel> loadHotelsByCity(String hotelCity) {
+        return List.copyOf(this.hotelDAO.findHotelsByCity(hotelCity));
+    }
+
+    // null for an unknown hotel, which is not cached
+    private List<Room> loadFreeRooms(String nameHotel) {
+        Hotel hotel = this.hotelDAO.findHotelByName(nameHotel);
+        return hotel == null ? null : List.copyOf(hotel.getFreeRooms());
+    }
+
+    // logs the rooms of a hotel that were booked or cancelled, room by room, and drops its cached free rooms
+    private void reservationsChanged(Hotel hotel, int... roomIds) {
+        this.hotelDAO.update(hotel, roomIds);
+        this.freeRoomsByHotel.invalidate(hotel.getHotelName());
+    }
+
+    // a single booking or cancellation, without a varargs array
+    private void reservationsChanged(Hotel hotel, int roomId) {
+        this.hotelDAO.update(hotel, roomId);
+        this.freeRoomsByHotel.invalidate(hotel.getHotelName());
+    }
+
+    private void hotelChanged(Hotel hotel) {
+        this.hotelsByCity.invalidate(hotel.getCityName());
+        this.freeRoomsByHotel.invalidate(hotel.getHotelName());
+    }
+
+    private static boolean validDates(LocalDate checkIn, LocalDate checkOut) {
+        return checkIn != null && checkOut != null && checkIn.isBefore(checkOut);
+    }
+
+    private <T> Outcome searched(List<T> found, List<? super T> result, long start) {
+        result.addAll(found);
+        return searched(found.isEmpty() ? Outcome.NOTHING_FOUND : Outcome.OK, start);
+    }
+
+    private Outcome searched(Outcome outcome, long start) {
+        this.metrics.record(Operation.SEARCH, outcome, start);
+        return outcome;
+    }
 }
 
@@ -4,7 +4,7 @@ import com.goit.hotelonlinebooking.entity.User;
 
 public class CurrentUser {
 
-    private User currentUser;
+    private volatile User currentUser;
 
     public User getCurrentUser() {
         return currentUser;
@@ -12,6 +12,5 @@ public class CurrentUser {
 
     public void setCurrentUser(User currentUser) {
         this.currentUser = currentUser;
-        System.out.println("You are logged in as a user " + currentUser.getName());
     }
 }
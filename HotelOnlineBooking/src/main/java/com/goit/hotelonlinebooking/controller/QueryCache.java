@@ -0,0 +1,172 @@
+package com.goit.hotelonlinebooking.controller;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// bounded map of search results, dropped key by key by the changes that make them stale. A hit is a lock-free
+// ConcurrentHashMap lookup that marks the entry as used; a store over capacity evicts in clock order, sparing the
+// entries used since the hand last passed them, which approximates least recently used.
+// A result computed while its key was being invalidated is never stored: every key maps to one of STRIPES stamps,
+// invalidate() bumps the stamp before it removes the entry, and a loaded result is put, atomically with the removal,
+// only if its stamp has not moved since before loading.
+public class QueryCache<K, V> {
+
+    private static final int STRIPES = 64;
+
+    private final int capacity;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    // guards hand; taken by stores over capacity only, never by get() on a hit
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Iterator<Map.Entry<K, Entry<V>>> hand;
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // a capacity of 0 turns the cache off: every get() calls the loader and nothing is counted
+    public QueryCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+        this.capacity = capacity;
+    }
+
+    // the cached value, or else the loader's; a null from the loader is returned but not cached, and neither is
+    // anything for a null key
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (this.capacity == 0 || key == null) {
+            return loader.apply(key);
+        }
+        Entry<V> cached = this.entries.get(key);
+        if (cached != null) {
+            // read before written, so that hits on a hot entry do not keep writing its cache line
+            if (!cached.used) {
+                cached.used = true;
+            }
+            this.hits.increment();
+            return cached.value;
+        }
+        this.misses.increment();
+        int stripe = stripe(key);
+        long stamp = this.stamps.get(stripe);
+        V value = loader.apply(key);
+        if (value != null) {
+            Entry<V> loaded = new Entry<>(value);
+            this.entries.compute(key, (k, current) -> this.stamps.get(stripe) == stamp ? loaded : current);
+            if (this.entries.size() > this.capacity) {
+                evict();
+            }
+        }
+        return value;
+    }
+
+    // call after the change is visible to the loader
+    public void invalidate(K key) {
+        this.stamps.incrementAndGet(stripe(key));
+        if (key != null && this.entries.remove(key) != null) {
+            this.invalidations.increment();
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            this.stamps.incrementAndGet(i);
+        }
+        for (Iterator<Entry<V>> it = this.entries.values().iterator(); it.hasNext(); ) {
+            it.next();
+            it.remove();
+            this.invalidations.increment();
+        }
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    public long getInvalidationCount() {
+        return this.invalidations.sum();
+    }
+
+    // hits over lookups, 0 before the first lookup
+    public double getHitRatio() {
+        long hits = this.hits.sum();
+        long lookups = hits + this.misses.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public void resetStats() {
+        this.hits.reset();
+        this.misses.reset();
+        this.evictions.reset();
+        this.invalidations.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size %d/%d, hit ratio %.3f, hits %d, misses %d, evictions %d, invalidations %d",
+                size(), this.capacity, getHitRatio(), getHitCount(), getMissCount(), getEvictionCount(),
+                getInvalidationCount());
+    }
+
+    // the hand goes round the map, taking the used mark off the entries it passes and evicting the first unused one
+    private void evict() {
+        this.evictionLock.lock();
+        try {
+            while (this.entries.size() > this.capacity) {
+                if (this.hand == null || !this.hand.hasNext()) {
+                    this.hand = this.entries.entrySet().iterator();
+                    if (!this.hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<K, Entry<V>> next = this.hand.next();
+                Entry<V> entry = next.getValue();
+                if (entry.used) {
+                    entry.used = false;
+                } else if (this.entries.remove(next.getKey(), entry)) {
+                    this.evictions.increment();
+                }
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    private static int stripe(Object key) {
+        int h = Objects.hashCode(key);
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        // set by hits, cleared by the clock hand
+        private volatile boolean used;
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.goit.hotelonlinebooking.controller;
+
+import com.goit.hotelonlinebooking.entity.User;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+// Sessions by token in a ConcurrentHashMap, plus the same sessions ordered by last access in a ConcurrentSkipListMap,
+// so the least recently used session and the idle ones are always at its head: making room in a full registry and
+// evicting idle sessions cost O(log n) per session removed instead of a scan. A validation moves its session to the
+// tail only once the access recorded there is more than idleTimeout / 64 old, so most validations do not write the
+// shared order. Slots are reserved by compare-and-increment on the size, which never goes past the cap.
+public class SessionRegistry {
+
+    public static final long DEFAULT_IDLE_TIMEOUT_MINUTES = 30;
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // every open session under its current Touch; entries a close() raced with a move are dropped at the head
+    private final ConcurrentSkipListMap<Touch, Session> byAccess = new ConcurrentSkipListMap<>();
+    private final AtomicLong touches = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    private final SecureRandom random = new SecureRandom();
+    private final long idleTimeoutNanos;
+    private final long reorderNanos;
+    private final int maxSessions;
+    private final LongSupplier clock;
+
+    public SessionRegistry() {
+        this(DEFAULT_IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES, DEFAULT_MAX_SESSIONS);
+    }
+
+    public SessionRegistry(long idleTimeout, TimeUnit unit, int maxSessions) {
+        this(idleTimeout, unit, maxSessions, System::nanoTime);
+    }
+
+    SessionRegistry(long idleTimeout, TimeUnit unit, int maxSessions, LongSupplier clock) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("maxSessions must be positive");
+        }
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.reorderNanos = this.idleTimeoutNanos / 64;
+        this.maxSessions = maxSessions;
+        this.clock = clock;
+    }
+
+    // in a full registry this closes the least recently used session, idle or not
+    public String open(User user) {
+        if (user == null) {
+            return null;
+        }
+        while (true) {
+            int current = this.size.get();
+            if (current < this.maxSessions) {
+                if (this.size.compareAndSet(current, current + 1)) {
+                    break;
+                }
+            } else if (!evictEldest()) {
+                // every slot is reserved by an open() that has not added its session yet
+                Thread.onSpinWait();
+            }
+        }
+        long now = this.clock.getAsLong();
+        String token = newToken();
+        Session session = new Session(token, user, now, new Touch(now, this.touches.incrementAndGet()));
+        this.sessions.put(token, session);
+        this.byAccess.put(session.touch.get(), session);
+        return token;
+    }
+
+    // null when the token is unknown or the session has been idle for too long
+    public User validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = this.sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = this.clock.getAsLong();
+        if (now - session.lastAccess > this.idleTimeoutNanos) {
+            close(token);
+            return null;
+        }
+        session.lastAccess = now;
+        if (now - session.touch.get().time > this.reorderNanos) {
+            move(session, now);
+        }
+        return session.user;
+    }
+
+    public void close(String token) {
+        Session session;
+        if (token != null && (session = this.sessions.remove(token)) != null) {
+            this.byAccess.remove(session.touch.get(), session);
+            this.size.decrementAndGet();
+        }
+    }
+
+    // walks the idle sessions at the head of the order and stops at the first one in use
+    public int evictIdle() {
+        long now = this.clock.getAsLong();
+        int evicted = 0;
+        Map.Entry<Touch, Session> eldest;
+        while ((eldest = this.byAccess.firstEntry()) != null && now - eldest.getKey().time > this.idleTimeoutNanos) {
+            Session session = eldest.getValue();
+            if (isStale(eldest)) {
+                this.byAccess.remove(eldest.getKey(), session);
+            } else if (now - session.lastAccess > this.idleTimeoutNanos) {
+                if (this.sessions.remove(session.token, session)) {
+                    this.byAccess.remove(eldest.getKey(), session);
+                    this.size.decrementAndGet();
+                    evicted++;
+                }
+            } else {
+                // used since it was ordered, within reorderNanos of it
+                move(session, session.lastAccess);
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return this.size.get();
+    }
+
+    // closes the least recently used session; false if there is none
+    private boolean evictEldest() {
+        Map.Entry<Touch, Session> eldest;
+        while ((eldest = this.byAccess.pollFirstEntry()) != null) {
+            Session session = eldest.getValue();
+            if (!isStale(eldest) && this.sessions.remove(session.token, session)) {
+                this.size.decrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // an entry left behind by a close() or an eviction that raced with a move of the same session
+    private boolean isStale(Map.Entry<Touch, Session> entry) {
+        Session session = entry.getValue();
+        return session.touch.get() != entry.getKey() || this.sessions.get(session.token) != session;
+    }
+
+    // reorders a session by its access at the given time; of concurrent moves of one session only one happens
+    private void move(Session session, long time) {
+        Touch previous = session.touch.get();
+        Touch next = new Touch(time, this.touches.incrementAndGet());
+        if (session.touch.compareAndSet(previous, next)) {
+            this.byAccess.put(next, session);
+            this.byAccess.remove(previous, session);
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[16];
+        this.random.nextBytes(bytes);
+        StringBuilder token = new StringBuilder(32);
+        for (byte b : bytes) {
+            token.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return token.toString();
+    }
+
+    private static class Session {
+        private final String token;
+        private final User user;
+        private volatile long lastAccess;
+        // the key of the session in byAccess
+        private final AtomicReference<Touch> touch;
+
+        Session(String token, User user, long lastAccess, Touch touch) {
+            this.token = token;
+            this.user = user;
+            this.lastAccess = lastAccess;
+            this.touch = new AtomicReference<>(touch);
+        }
+    }
+
+    // an access at time; seq makes every key unique and breaks ties in the order they were made
+    private static class Touch implements Comparable<Touch> {
+        private final long time;
+        private final long seq;
+
+        Touch(long time, long seq) {
+            this.time = time;
+            this.seq = seq;
+        }
+
+        @Override
+        public int compareTo(Touch other) {
+            int byTime = Long.compare(this.time - other.time, 0);
+            return byTime != 0 ? byTime : Long.compare(this.seq, other.seq);
+        }
+    }
+}
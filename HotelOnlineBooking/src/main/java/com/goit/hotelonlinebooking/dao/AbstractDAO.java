@@ -1,70 +1,500 @@
 package com.goit.hotelonlinebooking.dao;
 
 import com.goit.hotelonlinebooking.entity.WithId;
+import com.goit.hotelonlinebooking.metrics.Metrics;
+import com.goit.hotelonlinebooking.metrics.Operation;
+import com.goit.hotelonlinebooking.metrics.Outcome;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 
 public class AbstractDAO<T extends WithId> {
 
-    private List<T> listObject = new ArrayList<>();
+    // removals compact the slots once this many holes have piled up
+    private static final int MAX_HOLES = 32;
+    // writes the snapshots that commit() finds due, so the request that logged the change does not wait for one.
+    // A single daemon thread for every DAO: snapshots are written one at a time
+    private static final ExecutorService SNAPSHOTS = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "dao-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // id -> position in slots; deleted objects leave a null hole until the next compaction
+    private IntIntHashMap idIndex = new IntIntHashMap();
+    private Object[] slots = new Object[16];
+    private int end;
+    private int count;
+    // the positions of the holes in slots, ascending; only ever changed under the write lock
+    private final int[] holes = new int[MAX_HOLES];
+    private int holeCount;
+    private List<T> listView = new ListView();
+    // guards the storage above and the secondary indexes of subclasses
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // every change is logged here under the write lock, or the read lock for a part of an object, and made durable
+    // after the lock is released
+    private Storage<T> storage = Storage.inMemory();
+    private volatile boolean persistent;
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+    // the last background snapshot; close() waits for it. A failed one leaves the log as it was and is thrown by close()
+    private volatile CompletableFuture<Void> backgroundSnapshot = CompletableFuture.completedFuture(null);
+    // rejected saves and deletes are counted here instead of being printed
+    private volatile Metrics metrics = new Metrics();
 
     public void save(T object) {
-        if (this.listObject.isEmpty()) {
-            this.listObject.add(object);
-        } else {
-            if (this.listObject.contains(object)) {
-                System.out.println("Object " + object + " already exists in list");
-            } else {
-                this.listObject.add(object);
+        long ticket = 0;
+        writeLock().lock();
+        try {
+            if (this.idIndex.containsKey(object.getId())) {
+                event(Operation.STORE, Outcome.DUPLICATE_ID);
+            } else if (canSave(object)) {
+                ticket = this.storage.logSave(object);
+                insert(object);
+            }
+        } finally {
+            writeLock().unlock();
+        }
+        commit(ticket);
+    }
+
+    // saves object unless an object with its id is stored or check, run under the same write lock, returns something
+    // other than OK; the returned outcome says which. Nothing is counted in the metrics, that is up to the caller
+    protected Outcome save(T object, Function<? super T, Outcome> check) {
+        long ticket = 0;
+        Outcome outcome;
+        writeLock().lock();
+        try {
+            if (this.idIndex.containsKey(object.getId())) {
+                outcome = Outcome.DUPLICATE_ID;
+            } else if ((outcome = check.apply(object)) == Outcome.OK) {
+                ticket = this.storage.logSave(object);
+                insert(object);
             }
+        } finally {
+            writeLock().unlock();
         }
+        commit(ticket);
+        return outcome;
     }
 
+    // objects are identified by id: this removes the stored object with the id of object, whichever instance it is
     public void delete(T object) {
-        if (this.listObject.isEmpty()) {
-            System.out.println("Objects list is empty");
-        } else {
-            if (this.listObject.contains(object)) {
-                this.listObject.remove(object);
+        long ticket = 0;
+        writeLock().lock();
+        try {
+            if (this.count == 0) {
+                event(Operation.STORE, Outcome.EMPTY_LIST);
             } else {
-                System.out.println("Object " + object + " does not exist");
+                T stored = find(object.getId());
+                if (stored != null) {
+                    ticket = this.storage.logDelete(stored);
+                    remove(stored);
+                } else {
+                    event(Operation.STORE, Outcome.NOT_IN_LIST);
+                }
             }
+        } finally {
+            writeLock().unlock();
         }
+        commit(ticket);
     }
 
     public void deleteList(List<T> listObj) {
-        if (this.listObject.isEmpty()) {
-            System.out.println("Objects list is empty");
-        } else if (this.listObject.containsAll(listObj)) {
-            this.listObject.removeAll(listObj);
-        } else {
-            System.out.println("Enter the correct list of users you want to delete");
+        long ticket = 0;
+        writeLock().lock();
+        try {
+            if (this.count == 0) {
+                event(Operation.STORE, Outcome.EMPTY_LIST);
+                return;
+            }
+            for (T t : listObj) {
+                if (find(t.getId()) == null) {
+                    event(Operation.STORE, Outcome.NOT_IN_LIST);
+                    return;
+                }
+            }
+            for (T t : listObj) {
+                T stored = find(t.getId());
+                if (stored != null) {
+                    ticket = this.storage.logDelete(stored);
+                    remove(stored);
+                }
+            }
+        } finally {
+            writeLock().unlock();
         }
+        commit(ticket);
     }
 
     public void saveList(List<T> listObj) {
-        Set<T> setObj = new HashSet<>(this.listObject);
-        this.listObject.addAll(setObj);
+        long ticket = 0;
+        writeLock().lock();
+        try {
+            for (T t : listObj) {
+                if (!this.idIndex.containsKey(t.getId()) && canSave(t)) {
+                    ticket = this.storage.logSave(t);
+                    insert(t);
+                }
+            }
+        } finally {
+            writeLock().unlock();
+        }
+        commit(ticket);
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    protected void event(Operation operation, Outcome outcome) {
+        this.metrics.event(operation, outcome);
     }
 
     public T objectById(long id) {
-        for (T t : this.listObject) {
-            if (t.getId() == id) {
-                return t;
-            }
+        if (id < Integer.MIN_VALUE || id > Integer.MAX_VALUE) {
+            return null;
+        }
+        readLock().lock();
+        try {
+            return find((int) id);
+        } finally {
+            readLock().unlock();
         }
-        return null;
     }
 
     public List<T> getList() {
-        return this.listObject;
+        return this.listView;
     }
 
-    // ✅ Correct add() method
     public void add(T entity) {
-        this.listObject.add(entity);
+        long ticket = 0;
+        writeLock().lock();
+        try {
+            T existing = find(entity.getId());
+            if (existing != null) {
+                remove(existing);
+            }
+            boolean replaced = false;
+            try {
+                if (canSave(entity)) {
+                    ticket = this.storage.logSave(entity);
+                    insert(entity);
+                    replaced = true;
+                }
+            } finally {
+                if (!replaced && existing != null) {
+                    insert(existing);
+                }
+            }
+        } finally {
+            writeLock().unlock();
+        }
+        commit(ticket);
+    }
+
+    // logs the current state of an object that was changed in place, e.g. a hotel whose room got reserved.
+    // Without a storage there is nothing to log, so it does not take the write lock at all.
+    public void update(T object) {
+        if (!this.persistent) {
+            return;
+        }
+        long ticket = 0;
+        writeLock().lock();
+        try {
+            if (find(object.getId()) == object) {
+                ticket = this.storage.logSave(object);
+            } else {
+                event(Operation.STORE, Outcome.NOT_IN_LIST);
+            }
+        } finally {
+            writeLock().unlock();
+        }
+        commit(ticket);
+    }
+
+    // logs the current state of some parts of an object that were changed in place, e.g. the rooms of a hotel that
+    // got booked, without rewriting the whole object. Takes only the read lock: changes to different objects are
+    // logged side by side, and the object can not be deleted or replaced in the middle
+    public void update(T object, int... parts) {
+        if (!this.persistent) {
+            return;
+        }
+        long ticket = 0;
+        readLock().lock();
+        try {
+            if (find(object.getId()) == object) {
+                for (int part : parts) {
+                    ticket = this.storage.logPart(object, part);
+                }
+            } else {
+                event(Operation.STORE, Outcome.NOT_IN_LIST);
+            }
+        } finally {
+            readLock().unlock();
+        }
+        commit(ticket);
+    }
+
+    // the same for a single part, without a varargs array
+    public void update(T object, int part) {
+        if (!this.persistent) {
+            return;
+        }
+        long ticket = 0;
+        readLock().lock();
+        try {
+            if (find(object.getId()) == object) {
+                ticket = this.storage.logPart(object, part);
+            } else {
+                event(Operation.STORE, Outcome.NOT_IN_LIST);
+            }
+        } finally {
+            readLock().unlock();
+        }
+        commit(ticket);
+    }
+
+    // writes the whole contents to the storage so that the next startup replays only the changes made after it.
+    // Also runs by itself in the background every Storage.snapshotDue() changes; a call while a snapshot is being
+    // written returns at once.
+    public void snapshot() {
+        if (this.snapshotting.compareAndSet(false, true)) {
+            writeSnapshot();
+        }
+    }
+
+    // waits for a background snapshot that is still being written
+    public void close() {
+        Throwable failure = this.backgroundSnapshot.handle((done, e) -> e).join();
+        this.storage.close();
+        if (failure instanceof CompletionException && failure.getCause() instanceof RuntimeException cause) {
+            throw cause;
+        }
+    }
+
+    // called after winning snapshotting; copies the contents under the read lock and writes them without it
+    private void writeSnapshot() {
+        try {
+            long generation;
+            List<T> objects;
+            readLock().lock();
+            try {
+                generation = this.storage.rotate();
+                objects = new ArrayList<>(this.count);
+                for (int i = 0; i < this.end; i++) {
+                    if (this.slots[i] != null) {
+                        objects.add(slotAt(i));
+                    }
+                }
+            } finally {
+                readLock().unlock();
+            }
+            this.storage.snapshot(generation, objects);
+        } finally {
+            this.snapshotting.set(false);
+        }
+    }
+
+    // secondary indexes of subclasses: canSave() vetoes an insert, index()/unindex() follow every insert and removal.
+    // All three run under the write lock; lookups on the secondary indexes must hold the read lock.
+    protected boolean canSave(T object) {
+        return true;
+    }
+
+    protected void index(T object) {
+    }
+
+    protected void unindex(T object) {
+    }
+
+    // for subclass constructors: replays the storage into this DAO and logs every later change to it.
+    // Replayed objects bypass canSave(), the log only holds changes that were accepted the first time.
+    protected final void attach(Storage<T> storage) {
+        writeLock().lock();
+        try {
+            storage.load(this::restore, id -> {
+                T existing = find(id);
+                if (existing != null) {
+                    remove(existing);
+                }
+            }, this::find);
+            this.storage = storage;
+            this.persistent = true;
+        } finally {
+            writeLock().unlock();
+        }
+    }
+
+    protected Lock readLock() {
+        return this.lock.readLock();
+    }
+
+    protected Lock writeLock() {
+        return this.lock.writeLock();
+    }
+
+    private void restore(T object) {
+        T existing = find(object.getId());
+        if (existing != null) {
+            remove(existing);
+        }
+        insert(object);
+    }
+
+    private void commit(long ticket) {
+        if (ticket != 0) {
+            this.storage.sync(ticket);
+            if (this.storage.snapshotDue() && this.snapshotting.compareAndSet(false, true)) {
+                this.backgroundSnapshot = CompletableFuture.runAsync(this::writeSnapshot, SNAPSHOTS);
+            }
+        }
+    }
+
+    private T find(int id) {
+        int slot = this.idIndex.get(id);
+        return slot == IntIntHashMap.NO_VALUE ? null : slotAt(slot);
+    }
+
+    private void insert(T object) {
+        if (this.end == this.slots.length) {
+            if (this.count < this.end >> 1) {
+                compact();
+            } else {
+                this.slots = Arrays.copyOf(this.slots, this.slots.length << 1);
+            }
+        }
+        this.idIndex.put(object.getId(), this.end);
+        this.slots[this.end++] = object;
+        this.count++;
+        index(object);
+    }
+
+    private void remove(T object) {
+        int slot = this.idIndex.remove(object.getId());
+        this.slots[slot] = null;
+        this.count--;
+        if (this.count == 0) {
+            this.end = 0;
+            this.holeCount = 0;
+        } else if (this.holeCount == MAX_HOLES) {
+            compact();
+        } else {
+            int i = this.holeCount++;
+            for (; i > 0 && this.holes[i - 1] > slot; i--) {
+                this.holes[i] = this.holes[i - 1];
+            }
+            this.holes[i] = slot;
+        }
+        unindex(object);
+    }
+
+    // squeezes out the holes left by remove(), preserving insertion order
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < this.end; i++) {
+            Object o = this.slots[i];
+            if (o != null) {
+                if (target != i) {
+                    this.slots[target] = o;
+                    this.slots[i] = null;
+                    this.idIndex.put(((WithId) o).getId(), target);
+                }
+                target++;
+            }
+        }
+        this.end = target;
+        this.holeCount = 0;
+    }
+
+    // the slot of the index-th object: every hole at or before it pushes it one slot further
+    private int slotOf(int index) {
+        int slot = index;
+        for (int i = 0; i < this.holeCount && this.holes[i] <= slot; i++) {
+            slot++;
+        }
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T slotAt(int slot) {
+        return (T) this.slots[slot];
+    }
+
+    // read-only view in insertion order; iterators walk a snapshot taken under the read lock. get() only reads, so it
+    // may be called by a thread that already holds the read lock
+    private class ListView extends AbstractList<T> {
+
+        @Override
+        public T get(int index) {
+            readLock().lock();
+            try {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                }
+                return slotAt(slotOf(index));
+            } finally {
+                readLock().unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            readLock().lock();
+            try {
+                return count;
+            } finally {
+                readLock().unlock();
+            }
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            Object[] snapshot;
+            readLock().lock();
+            try {
+                snapshot = new Object[count];
+                int n = 0;
+                for (int i = 0; i < end; i++) {
+                    if (slots[i] != null) {
+                        snapshot[n++] = slots[i];
+                    }
+                }
+            } finally {
+                readLock().unlock();
+            }
+            return new Iterator<T>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return this.next < snapshot.length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public T next() {
+                    if (this.next >= snapshot.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return (T) snapshot[this.next++];
+                }
+            };
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Reservation;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// binary form of an entity for WalStorage. Users are referenced by id, so hotels and reservations need a way to
+// resolve them again: load the UserDAO before the DAOs whose codecs look users up in it.
+public interface Codec<T> {
+
+    void write(T object, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    // one part of an object, for Storage.logPart(); readPart() applies it to the object read before
+    default void writePart(T object, int part, DataOutput out) throws IOException {
+        throw new UnsupportedOperationException("No parts in " + object.getClass().getSimpleName());
+    }
+
+    default void readPart(T object, DataInput in) throws IOException {
+        throw new UnsupportedOperationException("No parts in " + object.getClass().getSimpleName());
+    }
+
+    static Codec<User> users() {
+        return new Codec<User>() {
+            @Override
+            public void write(User user, DataOutput out) throws IOException {
+                out.writeInt(user.getId());
+                writeString(out, user.getName());
+                writeString(out, user.getLastName());
+                out.writeInt(user.getAge());
+                writeString(out, user.getEmail());
+                writeString(out, user.getUserPhoneNumber());
+                writeString(out, user.getHashedPassword());
+            }
+
+            @Override
+            public User read(DataInput in) throws IOException {
+                return new User(in.readInt(), readString(in), readString(in), in.readInt(), readString(in),
+                        readString(in), readString(in));
+            }
+        };
+    }
+
+    static Codec<Hotel> hotels(IntFunction<User> users) {
+        return new Codec<Hotel>() {
+            @Override
+            public void write(Hotel hotel, DataOutput out) throws IOException {
+                out.writeInt(hotel.getId());
+                writeString(out, hotel.getHotelName());
+                writeString(out, hotel.getCityName());
+                writeString(out, hotel.getAddress());
+                writeString(out, hotel.getEmailHotel());
+                out.writeInt(hotel.getRating());
+                List<Room> rooms = hotel.getRooms();
+                out.writeInt(rooms == null ? -1 : rooms.size());
+                if (rooms != null) {
+                    for (Room room : rooms) {
+                        User reserved = room.getUserReserved();
+                        out.writeInt(room.getId());
+                        out.writeInt(room.getPrice());
+                        out.writeInt(room.getFloor());
+                        out.writeInt(room.getCapacity());
+                        out.writeInt(reserved == null ? 0 : reserved.getId());
+                    }
+                }
+            }
+
+            @Override
+            public Hotel read(DataInput in) throws IOException {
+                int id = in.readInt();
+                String hotelName = readString(in);
+                String cityName = readString(in);
+                String address = readString(in);
+                String email = readString(in);
+                int rating = in.readInt();
+                int roomCount = in.readInt();
+                List<Room> rooms = null;
+                if (roomCount >= 0) {
+                    rooms = new ArrayList<>(roomCount);
+                    for (int i = 0; i < roomCount; i++) {
+                        int roomId = in.readInt();
+                        int price = in.readInt();
+                        int floor = in.readInt();
+                        int capacity = in.readInt();
+                        int userId = in.readInt();
+                        rooms.add(new Room(id, roomId, price, floor, capacity,
+                                userId == 0 ? null : users.apply(userId)));
+                    }
+                }
+                return new Hotel(id, hotelName, cityName, address, email, rating, rooms);
+            }
+
+            // the part is a room id: the room and whoever holds it now, 0 for nobody
+            @Override
+            public void writePart(Hotel hotel, int roomId, DataOutput out) throws IOException {
+                Room room = hotel.getRoomById(roomId);
+                User reserved = room == null ? null : room.getUserReserved();
+                out.writeInt(roomId);
+                out.writeInt(reserved == null ? 0 : reserved.getId());
+            }
+
+            @Override
+            public void readPart(Hotel hotel, DataInput in) throws IOException {
+                int roomId = in.readInt();
+                int userId = in.readInt();
+                hotel.restoreReservation(roomId, userId == 0 ? null : users.apply(userId));
+            }
+        };
+    }
+
+    static Codec<Reservation> reservations(IntFunction<User> users) {
+        return new Codec<Reservation>() {
+            @Override
+            public void write(Reservation reservation, DataOutput out) throws IOException {
+                out.writeInt(reservation.getId());
+                out.writeInt(reservation.getHotelId());
+                out.writeInt(reservation.getRoomId());
+                out.writeInt(reservation.getUser() == null ? 0 : reservation.getUser().getId());
+                out.writeLong(reservation.getCheckIn().toEpochDay());
+                out.writeLong(reservation.getCheckOut().toEpochDay());
+            }
+
+            @Override
+            public Reservation read(DataInput in) throws IOException {
+                int id = in.readInt();
+                int hotelId = in.readInt();
+                int roomId = in.readInt();
+                int userId = in.readInt();
+                return new Reservation(id, hotelId, roomId, userId == 0 ? null : users.apply(userId),
+                        LocalDate.ofEpochDay(in.readLong()), LocalDate.ofEpochDay(in.readLong()));
+            }
+        };
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
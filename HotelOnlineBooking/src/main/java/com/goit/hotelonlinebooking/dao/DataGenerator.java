@@ -0,0 +1,171 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+// seeded bulk inventory for tests, benchmarks and load tests: the same settings always produce the same data.
+// Entities are generated one at a time and handed to the DAO, nothing is collected in between.
+public class DataGenerator {
+
+    private static final String[] CITIES = {"Kiev", "Kharkiv", "Odessa", "Dnepr", "Lviv", "Zaporizhia",
+            "Vinnytsia", "Poltava", "Chernihiv", "Alushta", "Uzhgorod", "Bukovel"};
+    private static final String[] HOTEL_BRANDS = {"Radisson", "Hayat", "Hilton", "Premier", "Bratislava",
+            "Gendel", "Ibis", "Reikartz", "Fairmont", "Rus", "Dnipro", "HOTEL-ka"};
+    private static final String[] NAMES = {"Ivan", "Petr", "Dana", "Samar", "Olga", "Anna", "Oleg", "Maria",
+            "Igor", "Nina", "Taras", "Iryna"};
+    private static final String[] LAST_NAMES = {"Ivanov", "Petrov", "Sidorov", "Alghamdi", "Sami", "Shevchenko",
+            "Bondar", "Kovalenko", "Melnyk", "Tkachenko"};
+    // share of rooms with capacity 1..4
+    private static final int[] CAPACITY_WEIGHTS = {20, 45, 20, 15};
+    private static final int ROOMS_PER_FLOOR = 10;
+
+    private final long seed;
+    private int cityCount = 10;
+    private int hotelCount = 100;
+    private int averageRoomsPerHotel = 10;
+    private int userCount = 1000;
+    private int firstHotelId = 1;
+    private int firstUserId = 1;
+
+    public DataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public DataGenerator cities(int cityCount) {
+        this.cityCount = Math.max(1, cityCount);
+        return this;
+    }
+
+    public DataGenerator hotels(int hotelCount) {
+        this.hotelCount = hotelCount;
+        return this;
+    }
+
+    public DataGenerator averageRoomsPerHotel(int averageRoomsPerHotel) {
+        this.averageRoomsPerHotel = Math.max(1, averageRoomsPerHotel);
+        return this;
+    }
+
+    public DataGenerator users(int userCount) {
+        this.userCount = userCount;
+        return this;
+    }
+
+    public DataGenerator firstHotelId(int firstHotelId) {
+        this.firstHotelId = firstHotelId;
+        return this;
+    }
+
+    public DataGenerator firstUserId(int firstUserId) {
+        this.firstUserId = firstUserId;
+        return this;
+    }
+
+    public void fill(HotelDAO hotelDAO, UserDAO userDAO) {
+        if (hotelDAO != null) {
+            forEachHotel(hotelDAO::save);
+        }
+        if (userDAO != null) {
+            forEachUser(userDAO::save);
+        }
+    }
+
+    // hotel ids are consecutive from firstHotelId; room ids are unique across the whole inventory
+    public void forEachHotel(Consumer<Hotel> consumer) {
+        SplittableRandom random = new SplittableRandom(this.seed);
+        int roomId = 0;
+        for (int i = 0; i < this.hotelCount; i++) {
+            int hotelId = this.firstHotelId + i;
+            int cityIndex = popularCity(random);
+            int rating = 1 + random.nextInt(5);
+            int roomCount = Math.max(1, this.averageRoomsPerHotel / 2 + random.nextInt(this.averageRoomsPerHotel + 1));
+            // better rated hotels in bigger cities are more expensive
+            int basePrice = 100 + rating * 40 + Math.max(0, 60 - cityIndex * 5);
+            List<Room> rooms = new ArrayList<>(roomCount);
+            for (int r = 0; r < roomCount; r++) {
+                int capacity = capacity(random);
+                int price = (basePrice * capacity + random.nextInt(basePrice / 2)) / 10 * 10;
+                rooms.add(new Room(hotelId, ++roomId, price, 1 + r / ROOMS_PER_FLOOR, capacity, null));
+            }
+            String city = cityName(cityIndex);
+            consumer.accept(new Hotel(hotelId, hotelName(hotelId), city, city + ", " + (1 + random.nextInt(200))
+                    + " Main street", "hotel" + hotelId + "@ukr.net", rating, rooms));
+        }
+    }
+
+    public void forEachUser(Consumer<User> consumer) {
+        SplittableRandom random = new SplittableRandom(this.seed ^ 0x5DEECE66DL);
+        for (int i = 0; i < this.userCount; i++) {
+            consumer.accept(newUser(this.firstUserId + i, random));
+        }
+    }
+
+    public static User newUser(int userId, SplittableRandom random) {
+        return new User(userId, NAMES[random.nextInt(NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                18 + random.nextInt(60), "user" + userId + "@i.ua", phoneNumber(userId), "hash" + userId);
+    }
+
+    public static String cityName(int cityIndex) {
+        return cityIndex < CITIES.length ? CITIES[cityIndex] : "City-" + cityIndex;
+    }
+
+    public static String hotelName(int hotelId) {
+        return HOTEL_BRANDS[hotelId % HOTEL_BRANDS.length] + " " + hotelId;
+    }
+
+    // ten digits, as UserDAO.checkRegistration expects, and unique per user id
+    public static String phoneNumber(int userId) {
+        StringBuilder phone = new StringBuilder("0000000000");
+        int value = userId;
+        for (int i = 9; i >= 0 && value > 0; i--) {
+            phone.setCharAt(i, (char) ('0' + value % 10));
+            value /= 10;
+        }
+        return phone.toString();
+    }
+
+    public int getCityCount() {
+        return cityCount;
+    }
+
+    public int getHotelCount() {
+        return hotelCount;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getFirstHotelId() {
+        return firstHotelId;
+    }
+
+    public int getFirstUserId() {
+        return firstUserId;
+    }
+
+    // roughly Zipf-like: city i gets a share proportional to 1 / (i + 1), so a few big cities hold most hotels
+    private int popularCity(SplittableRandom random) {
+        double u = random.nextDouble();
+        double harmonic = Math.log(this.cityCount) + 0.5772;
+        int index = (int) Math.exp(u * harmonic) - 1;
+        return Math.min(this.cityCount - 1, Math.max(0, index));
+    }
+
+    private static int capacity(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        for (int i = 0; i < CAPACITY_WEIGHTS.length; i++) {
+            roll -= CAPACITY_WEIGHTS[i];
+            if (roll < 0) {
+                return i + 1;
+            }
+        }
+        return CAPACITY_WEIGHTS.length;
+    }
+}
@@ -0,0 +1,240 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.NameDictionary;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// the free rooms of every city, cheapest first and split by capacity. A cheapest-first query seeks to its lowest price
+// in each capacity it allows and merges those runs: O(c log n + k log c) for the first k hits out of n rooms in
+// c capacities, and nothing is materialised. Kept in step by reservationChanged(), so an entry may briefly outlive a
+// booking; the room itself has the last word when a query reads it. Queries for a hotel merge the hotels' own price
+// orders instead (Hotel.freeRoomsByPrice()), which cost nothing to maintain and are short.
+class FreeRoomIndex implements Hotel.ReservationListener {
+
+    static final Comparator<Room> CHEAPEST_FIRST = Comparator.comparingInt(Room::getPrice)
+            .thenComparingInt(FreeRoomIndex::hotelId)
+            .thenComparingInt(Room::getId);
+
+    // by NameDictionary.CITIES code
+    private final ConcurrentHashMap<Integer, Scope> byCity = new ConcurrentHashMap<>();
+    // the hotels currently stored, by id; changes reported by a hotel that has been replaced or removed are ignored
+    private final ConcurrentHashMap<Integer, Hotel> hotels = new ConcurrentHashMap<>();
+
+    void add(Hotel hotel) {
+        this.hotels.put(hotel.getId(), hotel);
+        if (hotel.getRooms() != null) {
+            for (Room room : hotel.getRooms()) {
+                if (room.getUserReserved() == null) {
+                    add(hotel, room);
+                }
+            }
+        }
+    }
+
+    void remove(Hotel hotel) {
+        this.hotels.remove(hotel.getId(), hotel);
+        if (hotel.getRooms() != null) {
+            for (Room room : hotel.getRooms()) {
+                remove(hotel, room);
+            }
+        }
+    }
+
+    @Override
+    public void reservationChanged(Hotel hotel, int slot, User user) {
+        if (this.hotels.get(hotel.getId()) != hotel) {
+            return;
+        }
+        Room room = hotel.getRooms().get(slot);
+        if (user == null) {
+            add(hotel, room);
+        } else {
+            remove(hotel, room);
+        }
+    }
+
+    // for queries limited to a hotel or a city; hotels are the hotels of the query's hotel name, if it has one.
+    // The hotel wins when both are given and query.matches() checks the city
+    Iterator<Room> find(RoomQuery query, List<Hotel> hotels) {
+        if (query.isEmptyRange()) {
+            return Collections.emptyIterator();
+        }
+        PriorityQueue<Run> runs = new PriorityQueue<>();
+        if (query.getHotelName() != null) {
+            for (Hotel hotel : hotels) {
+                addRun(runs, hotel.freeRoomsByPrice(query.getMinPrice(), query.getMaxPrice()));
+            }
+            return new CheapestFirst(runs, query);
+        }
+        Scope scope = this.byCity.get(query.getCityCode());
+        if (scope == null) {
+            return Collections.emptyIterator();
+        }
+        // sort before every stored room of their price, whose hotel and room ids are real
+        Key from = new Key(query.getMinPrice(), Integer.MIN_VALUE, Integer.MIN_VALUE);
+        Key to = query.getMaxPrice() == Integer.MAX_VALUE ? null
+                : new Key(query.getMaxPrice() + 1, Integer.MIN_VALUE, Integer.MIN_VALUE);
+        for (ConcurrentSkipListMap<Key, Room> rooms : scope.capacities
+                .subMap(query.getMinCapacity(), true, query.getMaxCapacity(), true).values()) {
+            NavigableMap<Key, Room> inRange = to == null ? rooms.tailMap(from, true)
+                    : rooms.subMap(from, true, to, false);
+            addRun(runs, inRange.values().iterator());
+        }
+        return new CheapestFirst(runs, query);
+    }
+
+    private static void addRun(PriorityQueue<Run> runs, Iterator<Room> rooms) {
+        Run run = new Run(rooms);
+        if (run.head != null) {
+            runs.add(run);
+        }
+    }
+
+    private void add(Hotel hotel, Room room) {
+        if (hotel.getCityCode() != NameDictionary.NONE) {
+            this.byCity.computeIfAbsent(hotel.getCityCode(), k -> new Scope()).add(room);
+        }
+    }
+
+    private void remove(Hotel hotel, Room room) {
+        Scope scope = this.byCity.get(hotel.getCityCode());
+        if (scope != null) {
+            scope.remove(room);
+        }
+    }
+
+    private static int hotelId(Room room) {
+        return room.getHotel() == null ? Integer.MIN_VALUE : room.getHotel().getId();
+    }
+
+    // the sort key of a room, copied out of it so that a skip list search compares ints in its own nodes instead of
+    // following every candidate to its Room and Hotel
+    private static final class Key implements Comparable<Key> {
+        private final int price;
+        private final int hotelId;
+        private final int roomId;
+
+        Key(int price, int hotelId, int roomId) {
+            this.price = price;
+            this.hotelId = hotelId;
+            this.roomId = roomId;
+        }
+
+        Key(Room room) {
+            this(room.getPrice(), hotelId(room), room.getId());
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            if (this.price != other.price) {
+                return Integer.compare(this.price, other.price);
+            }
+            if (this.hotelId != other.hotelId) {
+                return Integer.compare(this.hotelId, other.hotelId);
+            }
+            return Integer.compare(this.roomId, other.roomId);
+        }
+    }
+
+    private static class Scope {
+        // capacity -> free rooms of that capacity; there are only a handful of capacities, so empty maps are kept
+        private final ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<Key, Room>> capacities =
+                new ConcurrentSkipListMap<>();
+
+        void add(Room room) {
+            this.capacities.computeIfAbsent(room.getCapacity(), k -> new ConcurrentSkipListMap<>())
+                    .put(new Key(room), room);
+        }
+
+        void remove(Room room) {
+            ConcurrentSkipListMap<Key, Room> rooms = this.capacities.get(room.getCapacity());
+            if (rooms != null) {
+                rooms.remove(new Key(room));
+            }
+        }
+    }
+
+    // rooms in CHEAPEST_FIRST order, from one capacity of a city or from one hotel, ordered by the room they return
+    // next
+    private static class Run implements Comparable<Run> {
+        private final Iterator<Room> rooms;
+        private Room head;
+
+        Run(Iterator<Room> rooms) {
+            this.rooms = rooms;
+            this.head = rooms.hasNext() ? rooms.next() : null;
+        }
+
+        void advance() {
+            this.head = this.rooms.hasNext() ? this.rooms.next() : null;
+        }
+
+        @Override
+        public int compareTo(Run other) {
+            return CHEAPEST_FIRST.compare(this.head, other.head);
+        }
+    }
+
+    private static class CheapestFirst implements Iterator<Room> {
+        private final PriorityQueue<Run> runs;
+        private final RoomQuery query;
+        private int remaining;
+        private Room next;
+
+        CheapestFirst(PriorityQueue<Run> runs, RoomQuery query) {
+            this.runs = runs;
+            this.query = query;
+            this.remaining = query.getLimit();
+            // stops skipping where the rooms run out, however far away the page starts
+            for (int skip = query.getOffset(); skip >= 0; skip--) {
+                advance();
+                if (this.next == null) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public Room next() {
+            if (this.next == null) {
+                throw new NoSuchElementException();
+            }
+            Room room = this.next;
+            this.remaining--;
+            advance();
+            return room;
+        }
+
+        private void advance() {
+            this.next = null;
+            while (this.remaining > 0 && !this.runs.isEmpty()) {
+                Run run = this.runs.poll();
+                Room room = run.head;
+                run.advance();
+                if (run.head != null) {
+                    this.runs.add(run);
+                }
+                if (this.query.matches(room)) {
+                    this.next = room;
+                    return;
+                }
+            }
+        }
+    }
+}
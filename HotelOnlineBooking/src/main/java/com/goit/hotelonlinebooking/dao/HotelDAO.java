@@ -1,102 +1,386 @@
 package com.goit.hotelonlinebooking.dao;
 
 import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.NameDictionary;
 import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Operation;
+import com.goit.hotelonlinebooking.metrics.Outcome;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class HotelDAO extends AbstractDAO<Hotel> {
 
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 50_000;
+    public static final int DEFAULT_PARALLEL_CHUNK = 4096;
+
+    private static final long SAMPLE_SEED = 42;
+
+    private TextIndex<Hotel> hotelsByCity = new TextIndex<>(Hotel::getCityName);
+    private TextIndex<Hotel> hotelsByName = new TextIndex<>(Hotel::getHotelName);
+    // exactly one of the two room stores is in use, see HotelDAO(boolean, boolean)
+    private RoomIndex roomIndex;
+    private RoomColumns roomColumns;
+    // the free rooms of each city in price order, kept with either store
+    private final FreeRoomIndex freeRooms = new FreeRoomIndex();
+    // the one reservation listener of every stored hotel
+    private final Hotel.ReservationListener reservationListener = this::reservationChanged;
+    // room searches over at least this many candidates run on searchPool
+    private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    // and are split into tasks of at most this many candidates
+    private volatile int parallelChunk = DEFAULT_PARALLEL_CHUNK;
+    private volatile ForkJoinPool searchPool = ForkJoinPool.commonPool();
+    private volatile ChangeListener changeListener;
+
     public HotelDAO() {
-        hotelFactory();
+        this(true);
     }
 
-    private void hotelFactory() {
+    public HotelDAO(boolean withSampleHotels) {
+        this(withSampleHotels, false);
+    }
+
+    // columnarRooms keeps the rooms as int columns and answers room queries with full scans instead of sorted
+    // indexes: cheaper to maintain and faster for broad queries and counts, slower for very selective ones
+    public HotelDAO(boolean withSampleHotels, boolean columnarRooms) {
+        if (columnarRooms) {
+            this.roomColumns = new RoomColumns();
+        } else {
+            this.roomIndex = new RoomIndex();
+        }
+        if (withSampleHotels) {
+            hotelFactory();
+        }
+    }
+
+    // the sample hotels are saved only into an empty storage, on the very first start
+    public HotelDAO(Storage<Hotel> storage, boolean withSampleHotels) {
+        this.roomIndex = new RoomIndex();
+        attach(storage);
+        if (withSampleHotels && getList().isEmpty()) {
+            hotelFactory();
+        }
+    }
 
-        save(new Hotel(new Random().nextInt(1000), "Radisson Podil", "Kiev",
-                "Kiev, Podil", "radisson@ukr.net", 5, roomFactory(10)));
+    // fixed ids and a fixed seed, so the sample inventory is the same on every run; bulk data comes from DataGenerator
+    private void hotelFactory() {
+        Random random = new Random(SAMPLE_SEED);
+        save(new Hotel(2, "Radisson Podil", "Kiev",
+                "Kiev, Podil", "radisson@ukr.net", 5, roomFactory(2, 10, random)));
         save(new Hotel(1, "Hayat", "Kiev",
-                "Kiev, Center", "hayat@ukr.net", 5, roomFactory(10)));
-        save(new Hotel(new Random().nextInt(1000), "Bratislava", "Dnepr",
-                "Dnepr, Truda", "bratislava@ukr.net", 4, roomFactory(10)));
-        save(new Hotel(new Random().nextInt(1000), "Gendel", "Dnepr",
-                "Dnepr, DownTown", "gendel@gmail.com", 3, roomFactory(10)));
-        save(new Hotel(new Random().nextInt(1000), "Radisson Alushta", "Alushta",
-                "Alushta beach", "radissonalushta@ukr.net", 5, roomFactory(10)));
-        save(new Hotel(new Random().nextInt(1000), "HOTEL-ka", "Alushta",
-                "Alushta, center", "hotelka@rambler.ru", 4, roomFactory(10)));
+                "Kiev, Center", "hayat@ukr.net", 5, roomFactory(1, 10, random)));
+        save(new Hotel(3, "Bratislava", "Dnepr",
+                "Dnepr, Truda", "bratislava@ukr.net", 4, roomFactory(3, 10, random)));
+        save(new Hotel(4, "Gendel", "Dnepr",
+                "Dnepr, DownTown", "gendel@gmail.com", 3, roomFactory(4, 10, random)));
+        save(new Hotel(5, "Radisson Alushta", "Alushta",
+                "Alushta beach", "radissonalushta@ukr.net", 5, roomFactory(5, 10, random)));
+        save(new Hotel(6, "HOTEL-ka", "Alushta",
+                "Alushta, center", "hotelka@rambler.ru", 4, roomFactory(6, 10, random)));
     }
 
     public Hotel findHotelByID(int hotelID) {
-        List<Hotel> foundHotels = getList().stream()
-                .filter(hotel -> hotel.getId() == hotelID).collect(Collectors.toList());
-        if (foundHotels.size() == 0 || foundHotels.size() >= 2) {
-            System.out.println("Error. With hotel ID: " + hotelID + " found more that 1 hotel...");
-            return null;
-        } else {
-            return foundHotels.get(0);
+        Hotel foundHotel = objectById(hotelID);
+        if (foundHotel == null) {
+            event(Operation.SEARCH, Outcome.HOTEL_NOT_FOUND);
         }
+        return foundHotel;
     }
 
-    private List<Room> roomFactory(int numberOfRooms) {
-        List<Room> DBRoom = generateRooms(false);
-        List<Room> fillingList = new ArrayList<>();
-        if (DBRoom != null) {
-            int roomDBSize = DBRoom.size();
-            if (numberOfRooms > 0 && numberOfRooms <= roomDBSize) {
-                for (int i = 0; i < numberOfRooms; i++) {
-                    fillingList.add(i, DBRoom.get(i));
-                }
-            } else if (numberOfRooms > roomDBSize) {
-                for (int i = 0; i < roomDBSize; i++) {
-                    fillingList.add(i, DBRoom.get(i));
+    public List<Hotel> findHotelsByCity(String cityName) {
+        int cityCode = NameDictionary.CITIES.find(cityName);
+        if (cityCode == NameDictionary.NONE) {
+            return new ArrayList<>();
+        }
+        readLock().lock();
+        try {
+            // the case-insensitive bucket holds every spelling of the city; the exact one is the one with its code
+            List<Hotel> found = this.hotelsByCity.findIgnoreCase(cityName);
+            found.removeIf(hotel -> hotel.getCityCode() != cityCode);
+            return found;
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    public List<Hotel> findHotelsByCityIgnoreCase(String cityName) {
+        readLock().lock();
+        try {
+            return this.hotelsByCity.findIgnoreCase(cityName);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    public List<Hotel> findHotelsByCityPrefix(String prefix) {
+        readLock().lock();
+        try {
+            return this.hotelsByCity.findByPrefix(prefix);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    public List<Hotel> findHotelsByName(String hotelName) {
+        readLock().lock();
+        try {
+            return this.hotelsByName.findExact(hotelName);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    public Hotel findHotelByName(String hotelName) {
+        readLock().lock();
+        try {
+            return this.hotelsByName.findFirstExact(hotelName);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    public List<Hotel> findHotelsByNameIgnoreCase(String hotelName) {
+        readLock().lock();
+        try {
+            return this.hotelsByName.findIgnoreCase(hotelName);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    public List<Hotel> findHotelsByNamePrefix(String prefix) {
+        readLock().lock();
+        try {
+            return this.hotelsByName.findByPrefix(prefix);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    // lazy with the sorted indexes: the iterator re-takes the read lock for every step, so hotels saved meanwhile
+    // may or may not show up. The columnar store scans once, up to the end of the requested page.
+    // Searches over getParallelThreshold() candidates or more run on the search pool in tasks of getParallelChunk()
+    // candidates and are never lazy; a first page no longer than a chunk is still served sequentially, since it
+    // usually ends long before the candidates do.
+    // A cheapest-first query for free rooms of a city or hotel walks the price index and stops at the end of its page;
+    // any other cheapest-first query is answered in full and sorted.
+    public Iterator<Room> findRooms(RoomQuery query) {
+        if (query.isCheapestFirst()) {
+            if (query.isOnlyFree() && (query.getHotelName() != null || query.getCityName() != null)) {
+                return this.freeRooms.find(query, query.getHotelName() == null ? null
+                        : findHotelsByName(query.getHotelName()));
+            }
+            List<Room> rooms = new ArrayList<>();
+            findRoomsInStoreOrder(query.withoutPage()).forEachRemaining(rooms::add);
+            rooms.sort(FreeRoomIndex.CHEAPEST_FIRST);
+            return ParallelRoomSearch.page(rooms, query).iterator();
+        }
+        return findRoomsInStoreOrder(query);
+    }
+
+    private Iterator<Room> findRoomsInStoreOrder(RoomQuery query) {
+        List<Hotel> scope = scopeOf(query);
+        int chunk = this.parallelChunk;
+        boolean longPage = query.getOffset() + (long) query.getLimit() > chunk;
+        readLock().lock();
+        try {
+            if (this.roomColumns != null) {
+                if (longPage && this.roomColumns.candidates(scope) >= this.parallelThreshold) {
+                    return this.roomColumns.findParallel(query, scope, this.searchPool, chunk).iterator();
                 }
+                return this.roomColumns.find(query, scope).iterator();
             }
-        } else {
-            System.out.println("Sorry, Room's DB unavailable");
-            return null;
+            RoomIndex.Plan plan = this.roomIndex.plan(query, scope);
+            if (longPage && plan != null && plan.size() >= this.parallelThreshold) {
+                return this.roomIndex.findParallel(plan, query, this.searchPool, chunk).iterator();
+            }
+            return this.roomIndex.find(plan, query, readLock());
+        } finally {
+            readLock().unlock();
         }
-        return fillingList;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
 
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
     }
 
-    private List<Room> generateRooms(boolean auto) {
+    public int getParallelChunk() {
+        return parallelChunk;
+    }
+
+    public void setParallelChunk(int parallelChunk) {
+        if (parallelChunk <= 0) {
+            throw new IllegalArgumentException("parallelChunk must be positive: " + parallelChunk);
+        }
+        this.parallelChunk = parallelChunk;
+    }
+
+    public void setSearchPool(ForkJoinPool searchPool) {
+        this.searchPool = searchPool;
+    }
+
+    public void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    public List<Room> findRoomList(RoomQuery query) {
         List<Room> roomList = new ArrayList<>();
-        if (auto) {
-            Random random = new Random();
-            roomList.add(new Room(Math.abs(random.nextInt()), 100, 1, 1, null));
-            roomList.add(new Room(Math.abs(random.nextInt()), 200, 1, 2, null));
-            roomList.add(new Room(Math.abs(random.nextInt()), 300, 1, 3, null));
-            roomList.add(new Room(Math.abs(random.nextInt()), 100, 2, 1, null));
-            roomList.add(new Room(Math.abs(random.nextInt()), 400, 2, 4, null));
-            roomList.add(new Room(Math.abs(random.nextInt()), 200, 3, 2, null));
-            roomList.add(new Room(Math.abs(random.nextInt()), 300, 3, 3, null));
-            roomList.add(new Room(Math.abs(random.nextInt()), 400, 4, 4, null));
-            roomList.add(new Room(Math.abs(random.nextInt()), 400, 4, 4, null));
-        } else {
-            Random random = new Random();
-            int countOfFloor = 4;
-            int maxPrice = 8;
-            int minPrice = 1;
-            int index = 0;
-            for (int i = 1; i <= countOfFloor; i++) {
-                for (int k = 1; k <= 5; k++) {
-                    int capacity = Math.abs(random.ints(1, 5).limit(1).findFirst().getAsInt());
-                    int price = (capacity * Math.abs(random.ints(minPrice, maxPrice).limit(1).findFirst().getAsInt()) * 100);
-                    index++;
-                    roomList.add(new Room(index, price, i, capacity, null));
-                }
+        findRooms(query).forEachRemaining(roomList::add);
+        return roomList;
+    }
+
+    public int countRooms(RoomQuery query) {
+        if (this.roomColumns == null) {
+            int count = 0;
+            for (Iterator<Room> rooms = findRooms(query); rooms.hasNext(); rooms.next()) {
+                count++;
+            }
+            return count;
+        }
+        List<Hotel> scope = scopeOf(query);
+        readLock().lock();
+        try {
+            return this.roomColumns.count(query, scope);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    // the rooms of findRooms(), but never collected: the search advances as the caller takes rooms, so a walk over
+    // millions of rooms allocates no result list and costs nothing past the room it stops at. With the sorted indexes
+    // this is findRooms() without the parallel path; the columnar store, whose scans fill a list, is walked hotel by
+    // hotel over the rooms themselves, in the order of getList(). Only a cheapest-first query the price index cannot
+    // answer still sorts its full result before the first room
+    public Iterator<Room> iterateRooms(RoomQuery query) {
+        if (query.isCheapestFirst()) {
+            return findRooms(query);
+        }
+        if (query.isEmptyRange()) {
+            return Collections.emptyIterator();
+        }
+        List<Hotel> scope = scopeOf(query);
+        if (this.roomColumns != null) {
+            return walk(scope == null ? getList().iterator() : scope.iterator(), query);
+        }
+        readLock().lock();
+        try {
+            return this.roomIndex.find(query, scope, readLock());
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    public Stream<Room> streamRooms(RoomQuery query) {
+        return stream(iterateRooms(query));
+    }
+
+    // hands the rooms of the query to action in order until it returns false
+    public void forEachRoom(RoomQuery query, Predicate<? super Room> action) {
+        Iterator<Room> rooms = iterateRooms(query);
+        while (rooms.hasNext()) {
+            if (!action.test(rooms.next())) {
+                return;
             }
         }
+    }
+
+    // the offset of the query is skipped once, when the cursor is opened
+    public RoomCursor openCursor(RoomQuery query) {
+        return new RoomCursor(iterateRooms(query));
+    }
+
+    @Override
+    protected void index(Hotel hotel) {
+        this.hotelsByCity.add(hotel);
+        this.hotelsByName.add(hotel);
+        if (this.roomColumns != null) {
+            this.roomColumns.add(hotel);
+        } else {
+            this.roomIndex.add(hotel);
+        }
+        // listening first: a booking made while the index reads the rooms is not lost
+        hotel.setReservationListener(this.reservationListener);
+        this.freeRooms.add(hotel);
+        hotelChanged(hotel);
+    }
+
+    @Override
+    protected void unindex(Hotel hotel) {
+        hotel.setReservationListener(null);
+        this.freeRooms.remove(hotel);
+        this.hotelsByCity.remove(hotel);
+        this.hotelsByName.remove(hotel);
+        if (this.roomColumns != null) {
+            this.roomColumns.remove(hotel);
+        } else {
+            this.roomIndex.remove(hotel);
+        }
+        hotelChanged(hotel);
+    }
+
+    private void reservationChanged(Hotel hotel, int slot, User user) {
+        if (this.roomColumns != null) {
+            this.roomColumns.reservationChanged(hotel, slot, user);
+        }
+        this.freeRooms.reservationChanged(hotel, slot, user);
+    }
+
+    private void hotelChanged(Hotel hotel) {
+        ChangeListener listener = this.changeListener;
+        if (listener != null) {
+            listener.hotelChanged(hotel);
+        }
+    }
+
+    // null when the query is not limited to a hotel or city
+    private List<Hotel> scopeOf(RoomQuery query) {
+        if (query.getHotelName() != null) {
+            return findHotelsByName(query.getHotelName());
+        } else if (query.getCityName() != null) {
+            return findHotelsByCity(query.getCityName());
+        }
+        return null;
+    }
+
+    // five rooms per floor, ids 1..numberOfRooms within the hotel
+    private List<Room> roomFactory(int hotelId, int numberOfRooms, Random random) {
+        int roomsPerFloor = 5;
+        int maxPrice = 8;
+        int minPrice = 1;
+        List<Room> roomList = new ArrayList<>(numberOfRooms);
+        for (int index = 1; index <= numberOfRooms; index++) {
+            int capacity = 1 + random.nextInt(4);
+            int price = capacity * (minPrice + random.nextInt(maxPrice - minPrice)) * 100;
+            roomList.add(new Room(hotelId, index, price, 1 + (index - 1) / roomsPerFloor, capacity, null));
+        }
         return roomList;
     }
 
     public List<Room> getAllRoom() {
-        List<Room> roomList = new ArrayList<>();
+        if (this.roomColumns != null) {
+            readLock().lock();
+            try {
+                return this.roomColumns.allRooms();
+            } finally {
+                readLock().unlock();
+            }
+        }
+        List<Room> roomList = new ArrayList<>(this.roomIndex.size());
         Iterator<Hotel> iterator = getList().iterator();
         while (iterator.hasNext()) {
             Hotel h = iterator.next();
@@ -104,4 +388,79 @@ public class HotelDAO extends AbstractDAO<Hotel> {
         }
         return roomList;
     }
+
+    // the rooms of getAllRoom(), hotel by hotel in the order of getList(), without the copy
+    public Stream<Room> streamAllRooms() {
+        return StreamSupport.stream(new HotelRooms(getList().iterator()), false);
+    }
+
+    private static Stream<Room> stream(Iterator<Room> rooms) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rooms,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // the rooms of the hotels that match the query, hotel by hotel; a hotel's rooms are looked up as the walk
+    // reaches it. Room lists are read without the lock, as getAllRoom() does
+    private Iterator<Room> walk(Iterator<Hotel> hotels, RoomQuery query) {
+        return new RoomIndex.FilteringIterator(new Iterator<List<Room>>() {
+            @Override
+            public boolean hasNext() {
+                return hotels.hasNext();
+            }
+
+            @Override
+            public List<Room> next() {
+                List<Room> rooms = hotels.next().getRooms();
+                return rooms == null ? Collections.emptyList() : rooms;
+            }
+        }, query, null);
+    }
+
+    // the rooms of the hotels, hotel by hotel. A stream that runs to the end goes through forEachRemaining(), which
+    // hands every room list to its own forEach() and allocates nothing per hotel
+    private static class HotelRooms extends Spliterators.AbstractSpliterator<Room> {
+        private final Iterator<Hotel> hotels;
+        private List<Room> rooms = Collections.emptyList();
+        private int position;
+
+        HotelRooms(Iterator<Hotel> hotels) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.hotels = hotels;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Room> action) {
+            while (this.position >= this.rooms.size()) {
+                if (!nextHotel()) {
+                    return false;
+                }
+            }
+            action.accept(this.rooms.get(this.position++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Room> action) {
+            this.rooms.subList(this.position, this.rooms.size()).forEach(action);
+            while (nextHotel()) {
+                this.rooms.forEach(action);
+            }
+            this.position = this.rooms.size();
+        }
+
+        private boolean nextHotel() {
+            if (!this.hotels.hasNext()) {
+                return false;
+            }
+            List<Room> rooms = this.hotels.next().getRooms();
+            this.rooms = rooms == null ? Collections.emptyList() : rooms;
+            this.position = 0;
+            return true;
+        }
+    }
+
+    // told about every hotel saved or deleted, under the write lock and after the indexes have been updated
+    public interface ChangeListener {
+        void hotelChanged(Hotel hotel);
+    }
 }
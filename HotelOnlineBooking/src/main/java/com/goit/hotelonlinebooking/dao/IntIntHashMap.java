@@ -0,0 +1,146 @@
+package com.goit.hotelonlinebooking.dao;
+
+import java.util.Arrays;
+
+public class IntIntHashMap {
+
+    public static final int NO_VALUE = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+
+    public IntIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int get(int key) {
+        int mask = this.keys.length - 1;
+        int i = mix(key) & mask;
+        while (this.used[i]) {
+            if (this.keys[i] == key) {
+                return this.values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != NO_VALUE;
+    }
+
+    public int put(int key, int value) {
+        int mask = this.keys.length - 1;
+        int i = mix(key) & mask;
+        while (this.used[i]) {
+            if (this.keys[i] == key) {
+                int previous = this.values[i];
+                this.values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        this.used[i] = true;
+        this.keys[i] = key;
+        this.values[i] = value;
+        if (++this.size >= this.resizeAt) {
+            rehash(this.keys.length << 1);
+        }
+        return NO_VALUE;
+    }
+
+    public int remove(int key) {
+        int mask = this.keys.length - 1;
+        int i = mix(key) & mask;
+        while (this.used[i]) {
+            if (this.keys[i] == key) {
+                int previous = this.values[i];
+                shiftBack(i, mask);
+                this.size--;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(this.used, false);
+        this.size = 0;
+    }
+
+    // linear probing without tombstones: pull later entries of the cluster into the freed slot
+    private void shiftBack(int hole, int mask) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (!this.used[i]) {
+                break;
+            }
+            int home = mix(this.keys[i]) & mask;
+            boolean movable = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (movable) {
+                this.keys[hole] = this.keys[i];
+                this.values[hole] = this.values[i];
+                hole = i;
+            }
+        }
+        this.used[hole] = false;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        boolean[] oldUsed = this.used;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldUsed[j]) {
+                int i = mix(oldKeys[j]) & mask;
+                while (this.used[i]) {
+                    i = (i + 1) & mask;
+                }
+                this.used[i] = true;
+                this.keys[i] = oldKeys[j];
+                this.values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.used = new boolean[capacity];
+        this.resizeAt = capacity - (capacity >> 2);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity - (capacity >> 2) <= expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
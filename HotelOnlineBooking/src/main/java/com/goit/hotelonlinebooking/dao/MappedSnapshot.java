@@ -0,0 +1,261 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// compact binary image of the hotel and user inventory, read back through a memory mapping.
+// Layout: header, users, hotels, then one fixed-width record per room:
+//   header  magic, version, userCount, hotelCount, roomCount, usersOffset, hotelsOffset, roomsOffset
+//   user    id, age, name, lastName, email, phone, hashedPassword
+//   hotel   id, rating, firstRoom, roomCount, hotelName, cityName, address, email
+//   room    id, price, floor, capacity, reserverId (0 = free)
+// Strings are an int byte length (-1 for null) followed by UTF-8. The room section is addressed by record number,
+// so it can be scanned in place without creating a single Room.
+public class MappedSnapshot {
+
+    public static final int ROOM_RECORD = 20;
+
+    private static final int MAGIC = 0x484F4253;
+    private static final int VERSION = 1;
+    private static final int HEADER = 44;
+
+    private final ByteBuffer users;
+    private final ByteBuffer hotels;
+    private final ByteBuffer rooms;
+    private final int userCount;
+    private final int hotelCount;
+    private final int roomCount;
+
+    private MappedSnapshot(ByteBuffer users, ByteBuffer hotels, ByteBuffer rooms, int userCount, int hotelCount, int roomCount) {
+        this.users = users;
+        this.hotels = hotels;
+        this.rooms = rooms;
+        this.userCount = userCount;
+        this.hotelCount = hotelCount;
+        this.roomCount = roomCount;
+    }
+
+    // written next to the target and renamed over it, so a crash never leaves a half-written snapshot behind
+    public static void write(Path file, List<Hotel> hotelList, List<User> userList) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long usersOffset;
+        long hotelsOffset;
+        long roomsOffset;
+        int roomTotal = 0;
+        try (CountingStream counter = new CountingStream(Files.newOutputStream(temp));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(counter, 1 << 16))) {
+            out.write(new byte[HEADER]);
+            out.flush();
+            usersOffset = counter.written;
+            for (User user : userList) {
+                out.writeInt(user.getId());
+                out.writeInt(user.getAge());
+                writeString(out, user.getName());
+                writeString(out, user.getLastName());
+                writeString(out, user.getEmail());
+                writeString(out, user.getUserPhoneNumber());
+                writeString(out, user.getHashedPassword());
+            }
+            out.flush();
+            hotelsOffset = counter.written;
+            for (Hotel hotel : hotelList) {
+                int rooms = hotel.getRooms() == null ? 0 : hotel.getRooms().size();
+                out.writeInt(hotel.getId());
+                out.writeInt(hotel.getRating());
+                out.writeInt(roomTotal);
+                out.writeInt(rooms);
+                writeString(out, hotel.getHotelName());
+                writeString(out, hotel.getCityName());
+                writeString(out, hotel.getAddress());
+                writeString(out, hotel.getEmailHotel());
+                roomTotal += rooms;
+            }
+            out.flush();
+            roomsOffset = counter.written;
+            for (Hotel hotel : hotelList) {
+                if (hotel.getRooms() != null) {
+                    for (Room room : hotel.getRooms()) {
+                        User reserved = room.getUserReserved();
+                        out.writeInt(room.getId());
+                        out.writeInt(room.getPrice());
+                        out.writeInt(room.getFloor());
+                        out.writeInt(room.getCapacity());
+                        out.writeInt(reserved == null ? 0 : reserved.getId());
+                    }
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(userList.size()).putInt(hotelList.size()).putInt(roomTotal)
+                    .putLong(usersOffset).putLong(hotelsOffset).putLong(roomsOffset);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void write(Path file, HotelDAO hotelDAO, UserDAO userDAO) throws IOException {
+        write(file, new ArrayList<>(hotelDAO.getList()), new ArrayList<>(userDAO.getList()));
+    }
+
+    // each section is mapped on its own, so only a single section is limited to 2 GB
+    public static MappedSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a hotel snapshot: " + file);
+            }
+            int userCount = header.getInt();
+            int hotelCount = header.getInt();
+            int roomCount = header.getInt();
+            long usersOffset = header.getLong();
+            long hotelsOffset = header.getLong();
+            long roomsOffset = header.getLong();
+            MappedByteBuffer users = channel.map(FileChannel.MapMode.READ_ONLY, usersOffset, hotelsOffset - usersOffset);
+            MappedByteBuffer hotels = channel.map(FileChannel.MapMode.READ_ONLY, hotelsOffset, roomsOffset - hotelsOffset);
+            MappedByteBuffer rooms = channel.map(FileChannel.MapMode.READ_ONLY, roomsOffset, (long) roomCount * ROOM_RECORD);
+            return new MappedSnapshot(users, hotels, rooms, userCount, hotelCount, roomCount);
+        }
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getHotelCount() {
+        return hotelCount;
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    // room records in place; record numbers run from 0 to getRoomCount() - 1, the rooms of a hotel are consecutive
+    public int roomId(int record) {
+        return this.rooms.getInt(record * ROOM_RECORD);
+    }
+
+    public int roomPrice(int record) {
+        return this.rooms.getInt(record * ROOM_RECORD + 4);
+    }
+
+    public int roomFloor(int record) {
+        return this.rooms.getInt(record * ROOM_RECORD + 8);
+    }
+
+    public int roomCapacity(int record) {
+        return this.rooms.getInt(record * ROOM_RECORD + 12);
+    }
+
+    public int roomReserverId(int record) {
+        return this.rooms.getInt(record * ROOM_RECORD + 16);
+    }
+
+    // creates the users in file order and saves them in one batch
+    public void loadUsers(UserDAO userDAO) {
+        ByteBuffer in = this.users.duplicate();
+        List<User> userList = new ArrayList<>(this.userCount);
+        for (int i = 0; i < this.userCount; i++) {
+            int id = in.getInt();
+            int age = in.getInt();
+            userList.add(new User(id, readString(in), readString(in), age, readString(in), readString(in), readString(in)));
+        }
+        userDAO.saveList(userList);
+    }
+
+    // reservers are resolved through users, so load the users first
+    public void loadHotels(HotelDAO hotelDAO, IntFunction<User> users) {
+        ByteBuffer in = this.hotels.duplicate();
+        List<Hotel> hotelList = new ArrayList<>(this.hotelCount);
+        for (int i = 0; i < this.hotelCount; i++) {
+            int id = in.getInt();
+            int rating = in.getInt();
+            int firstRoom = in.getInt();
+            int rooms = in.getInt();
+            String hotelName = readString(in);
+            String cityName = readString(in);
+            String address = readString(in);
+            String email = readString(in);
+            List<Room> roomList = new ArrayList<>(rooms);
+            for (int record = firstRoom; record < firstRoom + rooms; record++) {
+                int reserverId = roomReserverId(record);
+                roomList.add(new Room(id, roomId(record), roomPrice(record), roomFloor(record), roomCapacity(record),
+                        reserverId == 0 ? null : users.apply(reserverId)));
+            }
+            hotelList.add(new Hotel(id, hotelName, cityName, address, email, rating, roomList));
+        }
+        hotelDAO.saveList(hotelList);
+    }
+
+    public void loadInto(HotelDAO hotelDAO, UserDAO userDAO) {
+        loadUsers(userDAO);
+        loadHotels(hotelDAO, userDAO::objectById);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class CountingStream extends OutputStream {
+        private final OutputStream out;
+        private long written;
+
+        CountingStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.written += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.out.close();
+        }
+    }
+}
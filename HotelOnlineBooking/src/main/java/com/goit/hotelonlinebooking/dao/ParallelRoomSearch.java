@@ -0,0 +1,95 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Room;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// fork/join filter over a sequence of segments (index buckets, hotels, row ranges) seen as one range of positions.
+// The range is halved down to chunks of at most chunk positions (HotelDAO.setParallelChunk), every chunk is filtered
+// on its own, and the parts are concatenated in order, so the result is the same as a sequential run. The caller
+// holds the DAO read lock for the whole run.
+class ParallelRoomSearch {
+
+    // filters positions [from, to) of segment number segment and adds the hits to out
+    interface SegmentFilter {
+        void filter(int segment, int from, int to, List<Room> out);
+    }
+
+    private final int[] starts;
+    private final int chunk;
+    private final SegmentFilter filter;
+
+    // sizes[i] is the number of positions in segment i
+    ParallelRoomSearch(int[] sizes, int chunk, SegmentFilter filter) {
+        if (chunk <= 0) {
+            throw new IllegalArgumentException("chunk must be positive: " + chunk);
+        }
+        this.starts = new int[sizes.length + 1];
+        for (int i = 0; i < sizes.length; i++) {
+            this.starts[i + 1] = this.starts[i] + sizes[i];
+        }
+        this.chunk = chunk;
+        this.filter = filter;
+    }
+
+    List<Room> run(ForkJoinPool pool) {
+        return pool.invoke(new Chunk(0, this.starts[this.starts.length - 1]));
+    }
+
+    // offset and limit of the query applied to a complete result
+    static List<Room> page(List<Room> rooms, RoomQuery query) {
+        int from = Math.min(rooms.size(), query.getOffset());
+        int to = (int) Math.min(rooms.size(), (long) from + query.getLimit());
+        return from == 0 && to == rooms.size() ? rooms : new ArrayList<>(rooms.subList(from, to));
+    }
+
+    private void filterRange(int from, int to, List<Room> out) {
+        int segment = Arrays.binarySearch(this.starts, from);
+        // for equal starts (empty segments) binarySearch may land on any of them; move to the one that holds from
+        segment = segment >= 0 ? segment : -segment - 2;
+        while (from < to) {
+            while (this.starts[segment + 1] <= from) {
+                segment++;
+            }
+            int end = Math.min(to, this.starts[segment + 1]);
+            this.filter.filter(segment, from - this.starts[segment], end - this.starts[segment], out);
+            from = end;
+        }
+    }
+
+    private class Chunk extends RecursiveTask<List<Room>> {
+        // tasks are forked and joined within one run and never serialized
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Room> compute() {
+            if (this.to - this.from <= ParallelRoomSearch.this.chunk) {
+                List<Room> out = new ArrayList<>();
+                filterRange(this.from, this.to, out);
+                return out;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            Chunk right = new Chunk(middle, this.to);
+            right.fork();
+            List<Room> left = new Chunk(this.from, middle).compute();
+            List<Room> rightRooms = right.join();
+            if (left.isEmpty()) {
+                return rightRooms;
+            }
+            left.addAll(rightRooms);
+            return left;
+        }
+    }
+}
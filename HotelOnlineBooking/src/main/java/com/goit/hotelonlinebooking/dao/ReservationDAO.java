@@ -0,0 +1,147 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Reservation;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.metrics.Operation;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReservationDAO extends AbstractDAO<Reservation> {
+
+    // (hotelId, roomId) -> that room's reservations ordered by check-in; they never overlap
+    private LongObjectHashMap<NavigableMap<LocalDate, Reservation>> schedules = new LongObjectHashMap<>();
+    private AtomicInteger lastId = new AtomicInteger();
+
+    public ReservationDAO() {
+    }
+
+    public ReservationDAO(Storage<Reservation> storage) {
+        attach(storage);
+    }
+
+    public int nextId() {
+        return this.lastId.incrementAndGet();
+    }
+
+    public boolean isFree(int hotelId, int roomId, LocalDate checkIn, LocalDate checkOut) {
+        readLock().lock();
+        try {
+            return isFreeLocked(hotelId, roomId, checkIn, checkOut);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    // whether the room has a reservation that ends after day. They never overlap, so the one that starts last is the
+    // one that ends last
+    public boolean isReservedAfter(int hotelId, int roomId, LocalDate day) {
+        readLock().lock();
+        try {
+            NavigableMap<LocalDate, Reservation> schedule = this.schedules.get(roomKey(hotelId, roomId));
+            return schedule != null && schedule.lastEntry().getValue().getCheckOut().isAfter(day);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    public Reservation findReservation(int hotelId, int roomId, LocalDate checkIn) {
+        if (checkIn == null) {
+            return null;
+        }
+        readLock().lock();
+        try {
+            NavigableMap<LocalDate, Reservation> schedule = this.schedules.get(roomKey(hotelId, roomId));
+            return schedule == null ? null : schedule.get(checkIn);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    public List<Reservation> findReservations(int hotelId, int roomId) {
+        readLock().lock();
+        try {
+            NavigableMap<LocalDate, Reservation> schedule = this.schedules.get(roomKey(hotelId, roomId));
+            return schedule == null ? new ArrayList<>() : new ArrayList<>(schedule.values());
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    // one read lock for the whole hotel; forEachFreeRoom() takes no lock of its own
+    public List<Room> findFreeRooms(Hotel hotel, LocalDate checkIn, LocalDate checkOut) {
+        List<Room> freeRooms = new ArrayList<>();
+        int hotelId = hotel.getId();
+        readLock().lock();
+        try {
+            hotel.forEachFreeRoom(room -> {
+                if (isFreeLocked(hotelId, room.getId(), checkIn, checkOut)) {
+                    freeRooms.add(room);
+                }
+            });
+        } finally {
+            readLock().unlock();
+        }
+        return freeRooms;
+    }
+
+    @Override
+    protected boolean canSave(Reservation reservation) {
+        if (reservation.getCheckIn() == null || reservation.getCheckOut() == null
+                || !reservation.getCheckIn().isBefore(reservation.getCheckOut())) {
+            event(Operation.STORE, Outcome.INVALID_DATES);
+            return false;
+        }
+        if (!isFreeLocked(reservation.getHotelId(), reservation.getRoomId(), reservation.getCheckIn(),
+                reservation.getCheckOut())) {
+            event(Operation.STORE, Outcome.DATES_TAKEN);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void index(Reservation reservation) {
+        long key = roomKey(reservation.getHotelId(), reservation.getRoomId());
+        NavigableMap<LocalDate, Reservation> schedule = this.schedules.get(key);
+        if (schedule == null) {
+            schedule = new TreeMap<>();
+            this.schedules.put(key, schedule);
+        }
+        schedule.put(reservation.getCheckIn(), reservation);
+        this.lastId.accumulateAndGet(reservation.getId(), Math::max);
+    }
+
+    @Override
+    protected void unindex(Reservation reservation) {
+        long key = roomKey(reservation.getHotelId(), reservation.getRoomId());
+        NavigableMap<LocalDate, Reservation> schedule = this.schedules.get(key);
+        if (schedule != null) {
+            schedule.remove(reservation.getCheckIn());
+            if (schedule.isEmpty()) {
+                this.schedules.remove(key);
+            }
+        }
+    }
+
+    // callers hold the lock
+    private boolean isFreeLocked(int hotelId, int roomId, LocalDate checkIn, LocalDate checkOut) {
+        NavigableMap<LocalDate, Reservation> schedule = this.schedules.get(roomKey(hotelId, roomId));
+        if (schedule == null) {
+            return true;
+        }
+        Map.Entry<LocalDate, Reservation> previous = schedule.lowerEntry(checkOut);
+        return previous == null || !previous.getValue().overlaps(checkIn, checkOut);
+    }
+
+    private static long roomKey(int hotelId, int roomId) {
+        return ((long) hotelId << 32) | (roomId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,308 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+// struct-of-arrays copy of all rooms: one int column per attribute, one row per room, and the rooms of a hotel in
+// consecutive rows. Scans and counts run over the int columns only. No Room is kept per row: a hit is looked up in its
+// hotel, at the row's distance from the hotel's first row, which is the room's slot in Hotel.getRooms().
+// Rows change under the HotelDAO write lock, the reserver column also from reservationChanged() on booking threads.
+class RoomColumns implements Hotel.ReservationListener {
+
+    // user ids are positive, so 0 marks a free room
+    static final int FREE = 0;
+
+    private int[] ids = new int[64];
+    private int[] prices = new int[64];
+    private int[] floors = new int[64];
+    private int[] capacities = new int[64];
+    private int[] reserverIds = new int[64];
+    // the hotel entry each row belongs to
+    private int[] entryOfRow = new int[64];
+    private int end;
+    private int live;
+    // one entry per hotel, in row order: the hotel, null once it is removed until the next compaction, and its
+    // first row
+    private Hotel[] hotels = new Hotel[16];
+    private int[] firstRows = new int[16];
+    private int entryEnd;
+    // hotel id -> entry
+    private final IntIntHashMap entries = new IntIntHashMap();
+    // keeps reservationChanged() from writing into a row that compaction is moving
+    private final ReentrantLock rowLock = new ReentrantLock();
+
+    void add(Hotel hotel) {
+        List<Room> hotelRooms = hotel.getRooms() == null ? new ArrayList<>() : hotel.getRooms();
+        this.rowLock.lock();
+        try {
+            grow(this.end + hotelRooms.size());
+            if (this.entryEnd == this.hotels.length) {
+                this.hotels = Arrays.copyOf(this.hotels, this.entryEnd << 1);
+                this.firstRows = Arrays.copyOf(this.firstRows, this.entryEnd << 1);
+            }
+            int entry = this.entryEnd++;
+            this.hotels[entry] = hotel;
+            this.firstRows[entry] = this.end;
+            this.entries.put(hotel.getId(), entry);
+            for (Room room : hotelRooms) {
+                User reserved = room.getUserReserved();
+                this.ids[this.end] = room.getId();
+                this.prices[this.end] = room.getPrice();
+                this.floors[this.end] = room.getFloor();
+                this.capacities[this.end] = room.getCapacity();
+                this.reserverIds[this.end] = reserved == null ? FREE : reserved.getId();
+                this.entryOfRow[this.end] = entry;
+                this.end++;
+            }
+            this.live += hotelRooms.size();
+        } finally {
+            this.rowLock.unlock();
+        }
+    }
+
+    void remove(Hotel hotel) {
+        this.rowLock.lock();
+        try {
+            int entry = this.entries.remove(hotel.getId());
+            if (entry == IntIntHashMap.NO_VALUE) {
+                return;
+            }
+            this.hotels[entry] = null;
+            this.live -= rowCount(hotel);
+            if (this.live < this.end >> 1) {
+                compact();
+            }
+        } finally {
+            this.rowLock.unlock();
+        }
+    }
+
+    @Override
+    public void reservationChanged(Hotel hotel, int slot, User user) {
+        this.rowLock.lock();
+        try {
+            int entry = this.entries.get(hotel.getId());
+            // the hotel may have been replaced by another one with the same id in the meantime
+            if (entry != IntIntHashMap.NO_VALUE && this.hotels[entry] == hotel) {
+                this.reserverIds[this.firstRows[entry] + slot] = user == null ? FREE : user.getId();
+            }
+        } finally {
+            this.rowLock.unlock();
+        }
+    }
+
+    int size() {
+        return this.live;
+    }
+
+    // scope is null when the query is not limited to a city or hotel; the matching rows come back in row order
+    List<Room> find(RoomQuery query, List<Hotel> scope) {
+        List<Room> result = new ArrayList<>();
+        if (query.isEmptyRange()) {
+            return result;
+        }
+        int[] skip = {query.getOffset()};
+        if (scope == null) {
+            scan(query, 0, this.end, skip, result);
+        } else {
+            for (Hotel hotel : scope) {
+                int first = firstRow(hotel);
+                if (first != IntIntHashMap.NO_VALUE && scan(query, first, first + rowCount(hotel), skip, result)) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // the same search as find(), split over the pool
+    List<Room> findParallel(RoomQuery query, List<Hotel> scope, ForkJoinPool pool, int chunk) {
+        if (query.isEmptyRange()) {
+            return new ArrayList<>();
+        }
+        int[] firsts;
+        int[] sizes;
+        if (scope == null) {
+            firsts = new int[]{0};
+            sizes = new int[]{this.end};
+        } else {
+            firsts = new int[scope.size()];
+            sizes = new int[scope.size()];
+            for (int i = 0; i < scope.size(); i++) {
+                int first = firstRow(scope.get(i));
+                if (first != IntIntHashMap.NO_VALUE) {
+                    firsts[i] = first;
+                    sizes[i] = rowCount(scope.get(i));
+                }
+            }
+        }
+        RoomQuery unpaged = query.withoutPage();
+        List<Room> rooms = new ParallelRoomSearch(sizes, chunk, (segment, from, to, out) ->
+                scan(unpaged, firsts[segment] + from, firsts[segment] + to, new int[1], out)).run(pool);
+        return ParallelRoomSearch.page(rooms, query);
+    }
+
+    // rows a search with this scope has to look at
+    int candidates(List<Hotel> scope) {
+        if (scope == null) {
+            return this.end;
+        }
+        int count = 0;
+        for (Hotel hotel : scope) {
+            count += rowCount(hotel);
+        }
+        return count;
+    }
+
+    // counts without creating a list or touching a Room; reservations are taken from the reserver column
+    int count(RoomQuery query, List<Hotel> scope) {
+        if (query.isEmptyRange()) {
+            return 0;
+        }
+        if (scope == null) {
+            return count(query, 0, this.end);
+        }
+        int count = 0;
+        for (Hotel hotel : scope) {
+            int first = firstRow(hotel);
+            if (first != IntIntHashMap.NO_VALUE) {
+                count += count(query, first, first + rowCount(hotel));
+            }
+        }
+        return count;
+    }
+
+    List<Room> allRooms() {
+        List<Room> result = new ArrayList<>(this.live);
+        for (int entry = 0; entry < this.entryEnd; entry++) {
+            Hotel hotel = this.hotels[entry];
+            if (hotel != null && hotel.getRooms() != null) {
+                result.addAll(hotel.getRooms());
+            }
+        }
+        return result;
+    }
+
+    // returns true once the page is full
+    private boolean scan(RoomQuery query, int from, int to, int[] skip, List<Room> result) {
+        int minPrice = query.getMinPrice();
+        int maxPrice = query.getMaxPrice();
+        int minFloor = query.getMinFloor();
+        int maxFloor = query.getMaxFloor();
+        int minCapacity = query.getMinCapacity();
+        int maxCapacity = query.getMaxCapacity();
+        boolean onlyFree = query.isOnlyFree();
+        int limit = query.getLimit();
+        for (int i = from; i < to; i++) {
+            int price = this.prices[i];
+            int floor = this.floors[i];
+            int capacity = this.capacities[i];
+            if (price < minPrice || price > maxPrice || floor < minFloor || floor > maxFloor
+                    || capacity < minCapacity || capacity > maxCapacity || onlyFree && this.reserverIds[i] != FREE) {
+                continue;
+            }
+            int entry = this.entryOfRow[i];
+            Hotel hotel = this.hotels[entry];
+            if (hotel == null) {
+                continue;
+            }
+            Room room = hotel.getRooms().get(i - this.firstRows[entry]);
+            // the column may lag behind a reservation made a moment ago; the room itself has the last word
+            if (onlyFree && room.getUserReserved() != null) {
+                continue;
+            }
+            if (skip[0] > 0) {
+                skip[0]--;
+            } else {
+                result.add(room);
+                if (result.size() >= limit) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int count(RoomQuery query, int from, int to) {
+        int minPrice = query.getMinPrice();
+        int maxPrice = query.getMaxPrice();
+        int minFloor = query.getMinFloor();
+        int maxFloor = query.getMaxFloor();
+        int minCapacity = query.getMinCapacity();
+        int maxCapacity = query.getMaxCapacity();
+        boolean onlyFree = query.isOnlyFree();
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int price = this.prices[i];
+            int floor = this.floors[i];
+            int capacity = this.capacities[i];
+            if (price >= minPrice && price <= maxPrice && floor >= minFloor && floor <= maxFloor
+                    && capacity >= minCapacity && capacity <= maxCapacity
+                    && (!onlyFree || this.reserverIds[i] == FREE) && this.hotels[this.entryOfRow[i]] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // NO_VALUE for a hotel that is not stored
+    private int firstRow(Hotel hotel) {
+        int entry = this.entries.get(hotel.getId());
+        return entry == IntIntHashMap.NO_VALUE ? IntIntHashMap.NO_VALUE : this.firstRows[entry];
+    }
+
+    private static int rowCount(Hotel hotel) {
+        return hotel.getRooms() == null ? 0 : hotel.getRooms().size();
+    }
+
+    private void grow(int capacity) {
+        if (capacity > this.ids.length) {
+            int length = Math.max(capacity, this.ids.length << 1);
+            this.ids = Arrays.copyOf(this.ids, length);
+            this.prices = Arrays.copyOf(this.prices, length);
+            this.floors = Arrays.copyOf(this.floors, length);
+            this.capacities = Arrays.copyOf(this.capacities, length);
+            this.reserverIds = Arrays.copyOf(this.reserverIds, length);
+            this.entryOfRow = Arrays.copyOf(this.entryOfRow, length);
+        }
+    }
+
+    // squeezes out the rows and entries of removed hotels; a hotel's rows stay consecutive, so they move as one block
+    private void compact() {
+        int targetRow = 0;
+        int target = 0;
+        for (int entry = 0; entry < this.entryEnd; entry++) {
+            Hotel hotel = this.hotels[entry];
+            if (hotel == null) {
+                continue;
+            }
+            int first = this.firstRows[entry];
+            int count = rowCount(hotel);
+            if (first != targetRow) {
+                System.arraycopy(this.ids, first, this.ids, targetRow, count);
+                System.arraycopy(this.prices, first, this.prices, targetRow, count);
+                System.arraycopy(this.floors, first, this.floors, targetRow, count);
+                System.arraycopy(this.capacities, first, this.capacities, targetRow, count);
+                System.arraycopy(this.reserverIds, first, this.reserverIds, targetRow, count);
+            }
+            if (entry != target || first != targetRow) {
+                Arrays.fill(this.entryOfRow, targetRow, targetRow + count, target);
+                this.hotels[target] = hotel;
+                this.firstRows[target] = targetRow;
+                this.entries.put(hotel.getId(), target);
+            }
+            targetRow += count;
+            target++;
+        }
+        Arrays.fill(this.hotels, target, this.entryEnd, null);
+        this.end = targetRow;
+        this.entryEnd = target;
+    }
+}
@@ -0,0 +1,51 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Room;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// pages through the rooms of one query without running it again for every page: the cursor keeps its place in the
+// lazy search, so a page costs the rooms on it, where RoomQuery.page(n, size) first skips the n pages before it.
+// It reads the live stores, so rooms saved, booked or cancelled between two pages may or may not show up.
+// Not thread-safe; one caller pages through it at a time
+public class RoomCursor {
+
+    private final Iterator<Room> rooms;
+    private int position;
+
+    RoomCursor(Iterator<Room> rooms) {
+        this.rooms = rooms;
+    }
+
+    public boolean hasNext() {
+        return this.rooms.hasNext();
+    }
+
+    // the next pageSize rooms, fewer at the end
+    public List<Room> nextPage(int pageSize) {
+        List<Room> page = new ArrayList<>(Math.min(pageSize, HotelDAO.DEFAULT_PARALLEL_CHUNK));
+        nextPage(pageSize, page);
+        return page;
+    }
+
+    // adds the next pageSize rooms to result, fewer at the end, and returns how many were added
+    public int nextPage(int pageSize, List<? super Room> result) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be > 0");
+        }
+        int added = 0;
+        while (added < pageSize && this.rooms.hasNext()) {
+            result.add(this.rooms.next());
+            added++;
+        }
+        this.position += added;
+        return added;
+    }
+
+    // rooms returned so far
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,325 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.function.ToIntFunction;
+
+// per-attribute sorted indexes over all rooms of all hotels; a query is driven by its most selective index
+class RoomIndex {
+
+    private static final int ATTRIBUTES = 3;
+
+    // where each room of a hotel sits in its three buckets: positions[attribute * rooms + slot], by hotel id
+    private final Map<Integer, int[]> positions = new HashMap<>();
+    private final Attribute price = new Attribute(0, Room::getPrice);
+    private final Attribute floor = new Attribute(1, Room::getFloor);
+    private final Attribute capacity = new Attribute(2, Room::getCapacity);
+    private int size;
+
+    void add(Hotel hotel) {
+        List<Room> rooms = hotel.getRooms();
+        if (rooms != null) {
+            int[] at = new int[ATTRIBUTES * rooms.size()];
+            this.positions.put(hotel.getId(), at);
+            for (Room room : rooms) {
+                this.price.add(room, at);
+                this.floor.add(room, at);
+                this.capacity.add(room, at);
+                this.size++;
+            }
+        }
+    }
+
+    void remove(Hotel hotel) {
+        // a compaction on the way may still move the hotel's rooms that are left, so the table goes last
+        int[] at = this.positions.get(hotel.getId());
+        if (at != null) {
+            for (Room room : hotel.getRooms()) {
+                this.price.remove(room, at);
+                this.floor.remove(room, at);
+                this.capacity.remove(room, at);
+                this.size--;
+            }
+            this.positions.remove(hotel.getId());
+        }
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    // scope is null when the query is not limited to a city or hotel
+    Iterator<Room> find(RoomQuery query, List<Hotel> scope, Lock lock) {
+        return find(plan(query, scope), query, lock);
+    }
+
+    // call under the read lock. The walk goes over a copy of the plan's bucket list, so buckets added or dropped later
+    // never disturb it; see Attribute for the buckets themselves
+    Iterator<Room> find(Plan plan, RoomQuery query, Lock lock) {
+        return plan == null ? Collections.emptyIterator()
+                : new FilteringIterator(new ArrayList<>(plan.source).iterator(), query, lock);
+    }
+
+    // the same search as find(), split over the pool; only worth it for large candidate sets
+    List<Room> findParallel(Plan plan, RoomQuery query, ForkJoinPool pool, int chunk) {
+        List<List<Room>> buckets = new ArrayList<>(plan.source);
+        int[] sizes = new int[buckets.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = buckets.get(i).size();
+        }
+        List<Room> rooms = new ParallelRoomSearch(sizes, chunk, (bucket, from, to, out) -> {
+            List<Room> candidates = buckets.get(bucket);
+            for (int i = from; i < to; i++) {
+                Room room = candidates.get(i);
+                if (room != null && query.matches(room)) {
+                    out.add(room);
+                }
+            }
+        }).run(pool);
+        return ParallelRoomSearch.page(rooms, query);
+    }
+
+    // picks the smallest candidate set among the scope and the three attribute indexes; null for an empty range
+    Plan plan(RoomQuery query, List<Hotel> scope) {
+        if (query.isEmptyRange()) {
+            return null;
+        }
+        Collection<List<Room>> source = null;
+        long best = Long.MAX_VALUE;
+        if (scope != null) {
+            best = 0;
+            List<List<Room>> hotelRooms = new ArrayList<>(scope.size());
+            for (Hotel hotel : scope) {
+                if (hotel.getRooms() != null) {
+                    hotelRooms.add(hotel.getRooms());
+                    best += hotel.getRooms().size();
+                }
+            }
+            source = hotelRooms;
+        }
+        Collection<List<Room>> candidate = this.price.range(query.getMinPrice(), query.getMaxPrice());
+        long estimate = candidate == null ? Long.MAX_VALUE : this.price.estimate(candidate, best);
+        if (estimate < best) {
+            best = estimate;
+            source = candidate;
+        }
+        candidate = this.floor.range(query.getMinFloor(), query.getMaxFloor());
+        estimate = candidate == null ? Long.MAX_VALUE : this.floor.estimate(candidate, best);
+        if (estimate < best) {
+            best = estimate;
+            source = candidate;
+        }
+        candidate = this.capacity.range(query.getMinCapacity(), query.getMaxCapacity());
+        estimate = candidate == null ? Long.MAX_VALUE : this.capacity.estimate(candidate, best);
+        if (estimate < best) {
+            best = estimate;
+            source = candidate;
+        }
+        if (source == null) {
+            best = this.size;
+            source = this.price.all();
+        }
+        return new Plan(source, best);
+    }
+
+    static class Plan {
+        private final Collection<List<Room>> source;
+        // number of candidate rooms the filter has to look at
+        private final long size;
+
+        Plan(Collection<List<Room>> source, long size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        long size() {
+            return this.size;
+        }
+    }
+
+    // a room is appended to its bucket in place and removed by leaving a hole (null) at its position, both of which a
+    // walk reading the bucket by position under the read lock takes in its stride. Once half a bucket is holes it is
+    // replaced by a compacted copy, so a walk half-way through the old bucket neither skips nor repeats the rooms after
+    // it; removing one room costs O(1) plus its share of the next compaction
+    private class Attribute {
+
+        private final int number;
+        private final ToIntFunction<Room> key;
+        // every value is a Bucket
+        private final NavigableMap<Integer, List<Room>> rooms = new TreeMap<>();
+
+        Attribute(int number, ToIntFunction<Room> key) {
+            this.number = number;
+            this.key = key;
+        }
+
+        // at is the position table of the room's hotel
+        void add(Room room, int[] at) {
+            List<Room> bucket = this.rooms.computeIfAbsent(this.key.applyAsInt(room), k -> new Bucket());
+            at[index(room, at)] = bucket.size();
+            bucket.add(room);
+        }
+
+        void remove(Room room, int[] at) {
+            int k = this.key.applyAsInt(room);
+            Bucket bucket = (Bucket) this.rooms.get(k);
+            int position = at[index(room, at)];
+            if (bucket == null || position >= bucket.size() || bucket.get(position) != room) {
+                return;
+            }
+            bucket.set(position, null);
+            bucket.holes++;
+            if (bucket.rooms() == 0) {
+                this.rooms.remove(k);
+            } else if (bucket.holes > bucket.size() / 2) {
+                this.rooms.put(k, compact(bucket));
+            }
+        }
+
+        // a copy without the holes; the rooms that move get their new positions
+        private Bucket compact(Bucket bucket) {
+            Bucket compacted = new Bucket(bucket.rooms());
+            for (Room room : bucket) {
+                if (room != null) {
+                    int[] at = RoomIndex.this.positions.get(room.getHotel().getId());
+                    at[index(room, at)] = compacted.size();
+                    compacted.add(room);
+                }
+            }
+            return compacted;
+        }
+
+        private int index(Room room, int[] at) {
+            return this.number * (at.length / ATTRIBUTES) + room.getSlot();
+        }
+
+        // null means the query does not restrict this attribute
+        Collection<List<Room>> range(int min, int max) {
+            if (min == Integer.MIN_VALUE && max == Integer.MAX_VALUE) {
+                return null;
+            }
+            return this.rooms.subMap(min, true, max, true).values();
+        }
+
+        // stops summing once the range is already larger than the best plan found so far
+        long estimate(Collection<List<Room>> range, long bound) {
+            long total = 0;
+            for (List<Room> bucket : range) {
+                total += ((Bucket) bucket).rooms();
+                if (total >= bound) {
+                    break;
+                }
+            }
+            return total;
+        }
+
+        Collection<List<Room>> all() {
+            return this.rooms.values();
+        }
+    }
+
+    private static class Bucket extends ArrayList<Room> {
+        // removed rooms still taking a position
+        private int holes;
+
+        Bucket() {
+        }
+
+        Bucket(int capacity) {
+            super(capacity);
+        }
+
+        int rooms() {
+            return size() - this.holes;
+        }
+    }
+
+    // rooms of the buckets in turn that match the query, paged; lock, if any, is held for each step, not between steps
+    static class FilteringIterator implements Iterator<Room> {
+
+        private final Iterator<List<Room>> buckets;
+        private final RoomQuery query;
+        private final Lock lock;
+        private List<Room> bucket = Collections.emptyList();
+        private int position;
+        private int remaining;
+        private Room next;
+
+        FilteringIterator(Iterator<List<Room>> buckets, RoomQuery query, Lock lock) {
+            this.buckets = buckets;
+            this.query = query;
+            this.lock = lock;
+            this.remaining = query.getLimit();
+            // stops skipping where the rooms run out, however far away the page starts
+            for (int skip = query.getOffset(); skip >= 0; skip--) {
+                advance();
+                if (this.next == null) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public Room next() {
+            if (this.next == null) {
+                throw new NoSuchElementException();
+            }
+            Room room = this.next;
+            this.remaining--;
+            advance();
+            return room;
+        }
+
+        private void advance() {
+            this.next = null;
+            if (this.remaining <= 0) {
+                return;
+            }
+            if (this.lock == null) {
+                advanceLocked();
+                return;
+            }
+            this.lock.lock();
+            try {
+                advanceLocked();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void advanceLocked() {
+            while (true) {
+                while (this.position < this.bucket.size()) {
+                    Room room = this.bucket.get(this.position++);
+                    if (room != null && this.query.matches(room)) {
+                        this.next = room;
+                        return;
+                    }
+                }
+                if (!this.buckets.hasNext()) {
+                    return;
+                }
+                this.bucket = this.buckets.next();
+                this.position = 0;
+            }
+        }
+    }
+}
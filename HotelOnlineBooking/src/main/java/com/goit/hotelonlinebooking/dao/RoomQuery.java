@@ -0,0 +1,209 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.NameDictionary;
+import com.goit.hotelonlinebooking.entity.Room;
+
+public class RoomQuery {
+
+    private int minPrice = Integer.MIN_VALUE;
+    private int maxPrice = Integer.MAX_VALUE;
+    private int minFloor = Integer.MIN_VALUE;
+    private int maxFloor = Integer.MAX_VALUE;
+    private int minCapacity = Integer.MIN_VALUE;
+    private int maxCapacity = Integer.MAX_VALUE;
+    private String cityName;
+    // cityName in NameDictionary.CITIES, looked up once; NONE until a hotel of that city exists
+    private int cityCode = NameDictionary.NONE;
+    private String hotelName;
+    private boolean onlyFree;
+    private boolean cheapestFirst;
+    private int offset;
+    private int limit = Integer.MAX_VALUE;
+
+    public RoomQuery price(int price) {
+        return priceBetween(price, price);
+    }
+
+    public RoomQuery priceBetween(int minPrice, int maxPrice) {
+        this.minPrice = Math.max(this.minPrice, minPrice);
+        this.maxPrice = Math.min(this.maxPrice, maxPrice);
+        return this;
+    }
+
+    public RoomQuery floor(int floor) {
+        return floorBetween(floor, floor);
+    }
+
+    public RoomQuery floorBetween(int minFloor, int maxFloor) {
+        this.minFloor = Math.max(this.minFloor, minFloor);
+        this.maxFloor = Math.min(this.maxFloor, maxFloor);
+        return this;
+    }
+
+    public RoomQuery capacity(int capacity) {
+        return capacityBetween(capacity, capacity);
+    }
+
+    public RoomQuery capacityAtLeast(int capacity) {
+        return capacityBetween(capacity, Integer.MAX_VALUE);
+    }
+
+    public RoomQuery capacityBetween(int minCapacity, int maxCapacity) {
+        this.minCapacity = Math.max(this.minCapacity, minCapacity);
+        this.maxCapacity = Math.min(this.maxCapacity, maxCapacity);
+        return this;
+    }
+
+    public RoomQuery inCity(String cityName) {
+        this.cityName = cityName;
+        this.cityCode = NameDictionary.CITIES.find(cityName);
+        return this;
+    }
+
+    public RoomQuery inHotel(String hotelName) {
+        this.hotelName = hotelName;
+        return this;
+    }
+
+    public RoomQuery onlyFree() {
+        this.onlyFree = true;
+        return this;
+    }
+
+    // results by ascending price, then hotel id and room id. Together with onlyFree() and a city or hotel this is
+    // served from a price index and costs O(log n + k) for a page of k rooms
+    public RoomQuery cheapestFirst() {
+        this.cheapestFirst = true;
+        return this;
+    }
+
+    public RoomQuery page(int pageNumber, int pageSize) {
+        if (pageNumber < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("Page number must be >= 0 and page size > 0");
+        }
+        // a page that would start past Integer.MAX_VALUE rooms starts after every result instead, and is empty
+        this.offset = (int) Math.min(Integer.MAX_VALUE, (long) pageNumber * pageSize);
+        this.limit = pageSize;
+        return this;
+    }
+
+    // a copy with the same filters and no paging
+    public RoomQuery withoutPage() {
+        RoomQuery query = new RoomQuery()
+                .priceBetween(this.minPrice, this.maxPrice)
+                .floorBetween(this.minFloor, this.maxFloor)
+                .capacityBetween(this.minCapacity, this.maxCapacity)
+                .inCity(this.cityName)
+                .inHotel(this.hotelName);
+        query.onlyFree = this.onlyFree;
+        query.cheapestFirst = this.cheapestFirst;
+        return query;
+    }
+
+    public boolean matches(Room room) {
+        if (room.getPrice() < this.minPrice || room.getPrice() > this.maxPrice) {
+            return false;
+        }
+        if (room.getFloor() < this.minFloor || room.getFloor() > this.maxFloor) {
+            return false;
+        }
+        if (room.getCapacity() < this.minCapacity || room.getCapacity() > this.maxCapacity) {
+            return false;
+        }
+        if (this.onlyFree && room.getUserReserved() != null) {
+            return false;
+        }
+        if (this.cityName != null || this.hotelName != null) {
+            Hotel hotel = room.getHotel();
+            if (hotel == null) {
+                return false;
+            }
+            if (this.cityName != null) {
+                int code = getCityCode();
+                if (code == NameDictionary.NONE || code != hotel.getCityCode()) {
+                    return false;
+                }
+            }
+            if (this.hotelName != null && !this.hotelName.equals(hotel.getHotelName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmptyRange() {
+        return this.minPrice > this.maxPrice || this.minFloor > this.maxFloor || this.minCapacity > this.maxCapacity;
+    }
+
+    public int getMinPrice() {
+        return minPrice;
+    }
+
+    public int getMaxPrice() {
+        return maxPrice;
+    }
+
+    public int getMinFloor() {
+        return minFloor;
+    }
+
+    public int getMaxFloor() {
+        return maxFloor;
+    }
+
+    public int getMinCapacity() {
+        return minCapacity;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    // the code of getCityName(), or NameDictionary.NONE when no hotel has ever been in that city
+    int getCityCode() {
+        if (this.cityCode == NameDictionary.NONE && this.cityName != null) {
+            this.cityCode = NameDictionary.CITIES.find(this.cityName);
+        }
+        return this.cityCode;
+    }
+
+    public String getHotelName() {
+        return hotelName;
+    }
+
+    public boolean isOnlyFree() {
+        return onlyFree;
+    }
+
+    public boolean isCheapestFirst() {
+        return cheapestFirst;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "RoomQuery : [" +
+                "price = " + minPrice + ".." + maxPrice +
+                ", floor = " + minFloor + ".." + maxFloor +
+                ", capacity = " + minCapacity + ".." + maxCapacity +
+                ", cityName = '" + cityName + '\'' +
+                ", hotelName = '" + hotelName + '\'' +
+                ", onlyFree = " + onlyFree +
+                ", cheapestFirst = " + cheapestFirst +
+                ", offset = " + offset +
+                ", limit = " + limit +
+                ']';
+    }
+}
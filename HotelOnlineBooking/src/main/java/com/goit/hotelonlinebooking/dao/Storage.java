@@ -0,0 +1,85 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.WithId;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+// where an AbstractDAO keeps its contents between restarts. The DAO calls logSave()/logDelete() under its write lock,
+// so records arrive in the order the changes were made, and sync() after releasing it, so waiting for the disk never
+// blocks other readers or writers. Implementations must tolerate replaying a change the snapshot already contains.
+public interface Storage<T extends WithId> {
+
+    // replays the stored contents: the last snapshot first, then every change logged after it. A part logged with
+    // logPart() is applied to the object stored returns for its id, and skipped if there is none
+    void load(Consumer<T> saved, IntConsumer deleted, IntFunction<T> stored);
+
+    // all three return a ticket for sync(); 0 means there is nothing to wait for
+    long logSave(T object);
+
+    long logDelete(T object);
+
+    // the current state of one part of a stored object, as Codec.writePart() writes it, e.g. one room of a hotel.
+    // Called under the DAO read lock only, so parts of different objects are logged side by side
+    long logPart(T object, int part);
+
+    // returns once every change up to the ticket is durable
+    void sync(long ticket);
+
+    boolean snapshotDue();
+
+    // called under the DAO read lock, so no change is logged meanwhile: starts a new log generation and returns it
+    long rotate();
+
+    // called without any lock: stores the contents copied at rotate() time and drops the files that it replaces
+    void snapshot(long generation, List<T> objects);
+
+    void close();
+
+    static <T extends WithId> Storage<T> inMemory() {
+        return new Storage<T>() {
+            @Override
+            public void load(Consumer<T> saved, IntConsumer deleted, IntFunction<T> stored) {
+            }
+
+            @Override
+            public long logSave(T object) {
+                return 0;
+            }
+
+            @Override
+            public long logDelete(T object) {
+                return 0;
+            }
+
+            @Override
+            public long logPart(T object, int part) {
+                return 0;
+            }
+
+            @Override
+            public void sync(long ticket) {
+            }
+
+            @Override
+            public boolean snapshotDue() {
+                return false;
+            }
+
+            @Override
+            public long rotate() {
+                return 0;
+            }
+
+            @Override
+            public void snapshot(long generation, List<T> objects) {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
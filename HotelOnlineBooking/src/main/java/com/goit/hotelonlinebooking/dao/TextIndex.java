@@ -0,0 +1,158 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.WithId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+// inverted index keyed by the lower-cased text, so exact, case-insensitive and prefix lookups share one sorted map.
+// A removal nulls the object's position in its bucket, found by id, and a bucket is compacted once more than half of
+// it is holes, so removing from a city of thousands of hotels costs O(1) amortized and the rest keep their order
+class TextIndex<T extends WithId> {
+
+    private final Function<T, String> keyExtractor;
+    private final NavigableMap<String, Bucket<T>> entries = new TreeMap<>();
+    // id -> position of the object in its bucket
+    private final IntIntHashMap positions = new IntIntHashMap();
+
+    TextIndex(Function<T, String> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    void add(T object) {
+        String text = this.keyExtractor.apply(object);
+        if (text != null) {
+            Bucket<T> bucket = this.entries.computeIfAbsent(normalize(text), k -> new Bucket<>());
+            this.positions.put(object.getId(), bucket.size());
+            bucket.add(object);
+        }
+    }
+
+    void remove(T object) {
+        String text = this.keyExtractor.apply(object);
+        if (text == null) {
+            return;
+        }
+        String key = normalize(text);
+        Bucket<T> bucket = this.entries.get(key);
+        int position = this.positions.get(object.getId());
+        if (bucket == null || position == IntIntHashMap.NO_VALUE || position >= bucket.size()
+                || !object.equals(bucket.get(position))) {
+            return;
+        }
+        bucket.set(position, null);
+        bucket.holes++;
+        this.positions.remove(object.getId());
+        if (bucket.objects() == 0) {
+            this.entries.remove(key);
+        } else if (bucket.holes > bucket.size() >> 1) {
+            compact(bucket);
+        }
+    }
+
+    List<T> findExact(String text) {
+        List<T> found = new ArrayList<>();
+        if (text == null) {
+            return found;
+        }
+        List<T> bucket = this.entries.get(normalize(text));
+        if (bucket != null) {
+            for (T t : bucket) {
+                if (t != null && text.equals(this.keyExtractor.apply(t))) {
+                    found.add(t);
+                }
+            }
+        }
+        return found;
+    }
+
+    T findFirstExact(String text) {
+        if (text == null) {
+            return null;
+        }
+        List<T> bucket = this.entries.get(normalize(text));
+        if (bucket != null) {
+            for (T t : bucket) {
+                if (t != null && text.equals(this.keyExtractor.apply(t))) {
+                    return t;
+                }
+            }
+        }
+        return null;
+    }
+
+    List<T> findIgnoreCase(String text) {
+        Bucket<T> bucket = text == null ? null : this.entries.get(normalize(text));
+        List<T> found = new ArrayList<>(bucket == null ? 0 : bucket.objects());
+        if (bucket != null) {
+            bucket.copyTo(found);
+        }
+        return found;
+    }
+
+    List<T> findByPrefix(String prefix) {
+        List<T> found = new ArrayList<>();
+        if (prefix == null) {
+            return found;
+        }
+        String from = normalize(prefix);
+        for (Map.Entry<String, Bucket<T>> entry : this.entries.tailMap(from, true).entrySet()) {
+            if (!entry.getKey().startsWith(from)) {
+                break;
+            }
+            entry.getValue().copyTo(found);
+        }
+        return found;
+    }
+
+    // drops the holes of a bucket, keeping the order of the rest
+    private void compact(Bucket<T> bucket) {
+        int target = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            T t = bucket.get(i);
+            if (t != null) {
+                if (target != i) {
+                    bucket.set(target, t);
+                    this.positions.put(t.getId(), target);
+                }
+                target++;
+            }
+        }
+        bucket.subList(target, bucket.size()).clear();
+        bucket.holes = 0;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static class Bucket<T> extends ArrayList<T> {
+        // removed objects still taking a position
+        private int holes;
+
+        Bucket() {
+            super(2);
+        }
+
+        int objects() {
+            return size() - this.holes;
+        }
+
+        void copyTo(List<? super T> target) {
+            if (this.holes == 0) {
+                target.addAll(this);
+                return;
+            }
+            for (T t : this) {
+                if (t != null) {
+                    target.add(t);
+                }
+            }
+        }
+    }
+}
@@ -1,89 +1,172 @@
 package com.goit.hotelonlinebooking.dao;
 
 import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Operation;
+import com.goit.hotelonlinebooking.metrics.Outcome;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class UserDAO extends AbstractDAO<User> {
 
+    private Map<String, User> usersByEmail = new HashMap<>();
+    private Map<String, User> usersByPhone = new HashMap<>();
+    private Map<String, List<User>> usersByName = new HashMap<>();
+    private Map<String, List<User>> usersByLastName = new HashMap<>();
+
+    public UserDAO() {
+    }
+
+    public UserDAO(Storage<User> storage) {
+        attach(storage);
+    }
+
     public boolean checkRegistration(User user) {
+        return registrationOutcome(user) == Outcome.OK;
+    }
+
+    // the first check the user fails, or OK
+    public Outcome registrationOutcome(User user) {
+        Outcome outcome = formatOutcome(user);
+        if (outcome != Outcome.OK) {
+            return outcome;
+        }
+        if (objectById(user.getId()) != null) {
+            return Outcome.DUPLICATE_ID;
+        }
+        readLock().lock();
+        try {
+            return duplicateOutcome(user);
+        } finally {
+            readLock().unlock();
+        }
+    }
+
+    // registrationOutcome() and the save in one step: the duplicate checks run under the write lock of the insert, so
+    // two registrations with the same email or phone can not both get OK
+    public Outcome register(User user) {
+        Outcome outcome = formatOutcome(user);
+        return outcome == Outcome.OK ? save(user, this::duplicateOutcome) : outcome;
+    }
+
+    private static Outcome formatOutcome(User user) {
         int quantityDigit = 10;
-        Iterator<User> iterator = getList().iterator();
-        boolean flag = true;
         if (user.getUserPhoneNumber().length() != quantityDigit) {
-            System.out.println("Phone number must contain 10 digits: For example 0967543231");
-            flag = false;
-        } else if (!(user.getEmail().contains("@") && user.getEmail().contains("."))) {
-            System.out.println("e-mail must contain \"@\" and \".\"");
-            flag = false;
-        }
-        while (iterator.hasNext()) {
-            User u = iterator.next();
-            if (u.getId() == user.getId()) {
-                System.out.println("User with ID " + user.getId() + " exists");
-                flag = false;
-            } else if (u.getEmail().equals(user.getEmail())) {
-                System.out.println("User  with email " + user.getEmail() + " exists");
-                flag = false;
-            } else if (u.getUserPhoneNumber().equals(user.getUserPhoneNumber())) {
-                System.out.println("User with phone number " + user.getUserPhoneNumber() + " exists");
-                flag = false;
-            }
+            return Outcome.INVALID_PHONE;
         }
-        return flag;
+        if (!(user.getEmail().contains("@") && user.getEmail().contains("."))) {
+            return Outcome.INVALID_EMAIL;
+        }
+        return Outcome.OK;
+    }
+
+    // callers hold the lock
+    private Outcome duplicateOutcome(User user) {
+        if (this.usersByEmail.containsKey(user.getEmail())) {
+            return Outcome.DUPLICATE_EMAIL;
+        }
+        if (this.usersByPhone.containsKey(user.getUserPhoneNumber())) {
+            return Outcome.DUPLICATE_PHONE;
+        }
+        return Outcome.OK;
     }
 
     public List<User> findUserByName(String name) {
-        List<User> userList = getList().stream()
-                .filter(user -> user.getName().equals(name))
-                .collect(Collectors.toList());
-        if (userList.size() != 0) {
-            return userList;
-        } else {
-            System.out.println("User with that Name is not found");
-            return userList;
+        List<User> userList = lookup(this.usersByName, name);
+        if (userList.isEmpty()) {
+            event(Operation.SEARCH, Outcome.NOTHING_FOUND);
         }
+        return userList;
     }
 
     public List<User> findUserByLastName(String lastName) {
-        List<User> userList = getList().stream()
-                .filter(user -> user.getLastName().equals(lastName))
-                .collect(Collectors.toList());
-        if (userList.size() != 0) {
-            return userList;
-        } else {
-            System.out.println("User with that LastName is not found");
-            return userList;
+        List<User> userList = lookup(this.usersByLastName, lastName);
+        if (userList.isEmpty()) {
+            event(Operation.SEARCH, Outcome.NOTHING_FOUND);
         }
+        return userList;
     }
 
     public List<User> findUserByPhone(String phoneNumber) {
-        List<User> userList = getList().stream()
-                .filter(user -> user.getUserPhoneNumber().equals(phoneNumber))
-                .collect(Collectors.toList());
-        if (userList.size() != 0) {
-            return userList;
-        } else {
-            System.out.println("User with that phone Number is not found");
-            return userList;
+        List<User> userList = lookupUnique(this.usersByPhone, phoneNumber);
+        if (userList.isEmpty()) {
+            event(Operation.SEARCH, Outcome.NOTHING_FOUND);
         }
+        return userList;
     }
 
     public List<User> findUserByEmail(String email) {
-        List<User> userList = getList().stream()
-                .filter(user -> user.getEmail().equals(email))
-                .collect(Collectors.toList());
-        if (userList.size() != 0) {
-            return userList;
-        } else {
-            System.out.println("User with that email is not found");
-            return userList;
+        List<User> userList = lookupUnique(this.usersByEmail, email);
+        if (userList.isEmpty()) {
+            event(Operation.SEARCH, Outcome.NOTHING_FOUND);
+        }
+        return userList;
+    }
+
+    @Override
+    protected boolean canSave(User user) {
+        if (this.usersByEmail.containsKey(user.getEmail())) {
+            event(Operation.STORE, Outcome.DUPLICATE_EMAIL);
+            return false;
+        }
+        if (this.usersByPhone.containsKey(user.getUserPhoneNumber())) {
+            event(Operation.STORE, Outcome.DUPLICATE_PHONE);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void index(User user) {
+        this.usersByEmail.put(user.getEmail(), user);
+        this.usersByPhone.put(user.getUserPhoneNumber(), user);
+        this.usersByName.computeIfAbsent(user.getName(), k -> new ArrayList<>(1)).add(user);
+        this.usersByLastName.computeIfAbsent(user.getLastName(), k -> new ArrayList<>(1)).add(user);
+    }
+
+    @Override
+    protected void unindex(User user) {
+        this.usersByEmail.remove(user.getEmail(), user);
+        this.usersByPhone.remove(user.getUserPhoneNumber(), user);
+        removeFromBucket(this.usersByName, user.getName(), user);
+        removeFromBucket(this.usersByLastName, user.getLastName(), user);
+    }
+
+    private static void removeFromBucket(Map<String, List<User>> index, String key, User user) {
+        List<User> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(user);
+            if (bucket.isEmpty()) {
+                index.remove(key);
+            }
         }
     }
 
+    private List<User> lookup(Map<String, List<User>> index, String key) {
+        readLock().lock();
+        try {
+            List<User> bucket = index.get(key);
+            return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+        } finally {
+            readLock().unlock();
+        }
+    }
 
+    private List<User> lookupUnique(Map<String, User> index, String key) {
+        List<User> userList = new ArrayList<>(1);
+        readLock().lock();
+        try {
+            User user = index.get(key);
+            if (user != null) {
+                userList.add(user);
+            }
+        } finally {
+            readLock().unlock();
+        }
+        return userList;
+    }
 }
 
 
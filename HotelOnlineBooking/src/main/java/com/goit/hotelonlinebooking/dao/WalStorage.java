@@ -0,0 +1,425 @@
+package com.goit.hotelonlinebooking.dao;
+
+import com.goit.hotelonlinebooking.entity.WithId;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// append-only log with group commit. Every change becomes one record [length][crc32][op][payload] in the buffer of
+// the current generation; the first thread that needs it durable writes the whole buffer and fsyncs once, and every
+// thread whose record went out with that batch returns without an fsync of its own.
+// Files in the directory: <name>-<generation>.wal and <name>-<generation>.snap. The snapshot of generation G holds
+// the contents at the start of log G, so startup reads the newest snapshot and replays only the logs from G on.
+public class WalStorage<T extends WithId> implements Storage<T> {
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 100_000;
+
+    private static final byte SAVE = 1;
+    private static final byte DELETE = 2;
+    private static final byte PART = 3;
+    private static final int HEADER = 8;
+    private static final int SNAPSHOT_CHUNK = 1 << 20;
+
+    private final Path directory;
+    private final String name;
+    private final Codec<T> codec;
+    private final int snapshotInterval;
+    private final Pattern fileName;
+
+    // guards everything below; it is never held during a write to disk
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = this.lock.newCondition();
+    private FileChannel channel;
+    private long generation;
+    private RecordBuffer pending = new RecordBuffer();
+    private RecordBuffer spare = new RecordBuffer();
+    private long appended;
+    private long durable;
+    private boolean flushing;
+    private IOException failure;
+    private volatile long changesSinceSnapshot;
+    private volatile long syncCount;
+
+    public WalStorage(Path directory, String name, Codec<T> codec) {
+        this(directory, name, codec, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    public WalStorage(Path directory, String name, Codec<T> codec, int snapshotInterval) {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("snapshotInterval must be positive");
+        }
+        this.directory = directory;
+        this.name = name;
+        this.codec = codec;
+        this.snapshotInterval = snapshotInterval;
+        this.fileName = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.(wal|snap)");
+    }
+
+    @Override
+    public void load(Consumer<T> saved, IntConsumer deleted, IntFunction<T> stored) {
+        this.lock.lock();
+        try {
+            if (this.channel != null) {
+                throw new IllegalStateException("Storage " + this.name + " is already loaded");
+            }
+            Files.createDirectories(this.directory);
+            TreeSet<Long> logs = new TreeSet<>();
+            long snapshot = -1;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, this.name + "-*")) {
+                for (Path file : files) {
+                    Matcher matcher = this.fileName.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        long fileGeneration = Long.parseLong(matcher.group(1));
+                        if (matcher.group(2).equals("wal")) {
+                            logs.add(fileGeneration);
+                        } else {
+                            snapshot = Math.max(snapshot, fileGeneration);
+                        }
+                    }
+                }
+            }
+            if (snapshot >= 0) {
+                replay(snapshotFile(snapshot), saved, deleted, stored);
+            }
+            long oldest = Math.max(snapshot, 0);
+            this.generation = oldest;
+            long validLength = 0;
+            for (long log : logs.tailSet(oldest)) {
+                this.generation = log;
+                validLength = replay(logFile(log), saved, deleted, stored);
+            }
+            deleteOlderThan(oldest);
+            this.channel = FileChannel.open(logFile(this.generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // a crash in the middle of a write leaves a torn record at the end; cut it off before appending again
+            this.channel.truncate(validLength);
+            this.channel.position(validLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not load storage " + this.name, e);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public long logSave(T object) {
+        return append(SAVE, object, 0);
+    }
+
+    @Override
+    public long logDelete(T object) {
+        return append(DELETE, object, 0);
+    }
+
+    // the part is encoded under the lock, so of two changes to the same part that log in the opposite order to the
+    // one they were made in, the record written last still holds the state they left behind
+    @Override
+    public long logPart(T object, int part) {
+        return append(PART, object, part);
+    }
+
+    @Override
+    public void sync(long ticket) {
+        if (ticket == 0) {
+            return;
+        }
+        this.lock.lock();
+        try {
+            while (this.durable < ticket) {
+                checkFailure();
+                if (this.flushing) {
+                    this.flushed.awaitUninterruptibly();
+                } else {
+                    flush();
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean snapshotDue() {
+        return this.changesSinceSnapshot >= this.snapshotInterval;
+    }
+
+    @Override
+    public long rotate() {
+        this.lock.lock();
+        try {
+            checkOpen();
+            while (this.flushing) {
+                this.flushed.awaitUninterruptibly();
+            }
+            if (this.durable < this.appended) {
+                flush();
+            }
+            checkFailure();
+            try {
+                this.channel.close();
+                this.generation++;
+                this.channel = FileChannel.open(logFile(this.generation), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                this.failure = e;
+                throw new UncheckedIOException("Can not start a new log for " + this.name, e);
+            }
+            this.changesSinceSnapshot = 0;
+            return this.generation;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void snapshot(long snapshotGeneration, List<T> objects) {
+        Path temp = this.directory.resolve(this.name + "-" + snapshotGeneration + ".snap.tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                RecordBuffer buffer = new RecordBuffer();
+                for (T object : objects) {
+                    buffer.append(SAVE, object, 0, this.codec);
+                    if (buffer.size() >= SNAPSHOT_CHUNK) {
+                        buffer.writeTo(out);
+                    }
+                }
+                buffer.writeTo(out);
+                out.force(true);
+            }
+            Files.move(temp, snapshotFile(snapshotGeneration), StandardCopyOption.ATOMIC_MOVE);
+            deleteOlderThan(snapshotGeneration);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not write snapshot of " + this.name, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            if (this.channel == null) {
+                return;
+            }
+            while (this.flushing) {
+                this.flushed.awaitUninterruptibly();
+            }
+            if (this.durable < this.appended && this.failure == null) {
+                flush();
+            }
+            this.channel.close();
+            this.channel = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not close storage " + this.name, e);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getGeneration() {
+        this.lock.lock();
+        try {
+            return this.generation;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // number of fsyncs of the log so far; with group commit it grows slower than the number of changes
+    public long getSyncCount() {
+        return this.syncCount;
+    }
+
+    private long append(byte op, T object, int part) {
+        this.lock.lock();
+        try {
+            checkOpen();
+            checkFailure();
+            this.pending.append(op, object, part, this.codec);
+            this.changesSinceSnapshot++;
+            return ++this.appended;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // called with the lock held; releases it while the batch goes to disk so other threads can keep appending
+    private void flush() {
+        this.flushing = true;
+        RecordBuffer batch = this.pending;
+        this.pending = this.spare;
+        long upTo = this.appended;
+        FileChannel target = this.channel;
+        this.lock.unlock();
+        IOException error = null;
+        try {
+            batch.writeTo(target);
+            target.force(false);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            this.lock.lock();
+        }
+        batch.reset();
+        this.spare = batch;
+        this.flushing = false;
+        if (error == null) {
+            this.durable = upTo;
+            this.syncCount++;
+        } else {
+            this.failure = error;
+        }
+        this.flushed.signalAll();
+    }
+
+    private void checkOpen() {
+        if (this.channel == null) {
+            throw new IllegalStateException("Storage " + this.name + " is not loaded");
+        }
+    }
+
+    // once a batch is lost the log has a gap, so every later change is refused rather than silently dropped
+    private void checkFailure() {
+        if (this.failure != null) {
+            throw new UncheckedIOException("Log of " + this.name + " failed", this.failure);
+        }
+    }
+
+    // returns the length of the intact prefix; replay stops at the first torn or corrupt record
+    private long replay(Path file, Consumer<T> saved, IntConsumer deleted, IntFunction<T> stored) throws IOException {
+        long valid = 0;
+        long size = Files.size(file);
+        CRC32 crc = new CRC32();
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+            while (true) {
+                int length;
+                int checksum;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    // a length torn or corrupted by a crash may be anything; more than the file holds is a torn tail
+                    if (length <= 0 || length > size - valid - HEADER) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload, 1, length - 1));
+                if (payload[0] == SAVE) {
+                    saved.accept(this.codec.read(record));
+                } else if (payload[0] == DELETE) {
+                    deleted.accept(record.readInt());
+                } else if (payload[0] == PART) {
+                    T object = stored.apply(record.readInt());
+                    if (object != null) {
+                        this.codec.readPart(object, record);
+                    }
+                } else {
+                    break;
+                }
+                valid += HEADER + length;
+            }
+        }
+        return valid;
+    }
+
+    private void deleteOlderThan(long keep) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, this.name + "-*")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                Matcher matcher = this.fileName.matcher(fileName);
+                if (matcher.matches() ? Long.parseLong(matcher.group(1)) < keep : fileName.endsWith(".snap.tmp")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path logFile(long logGeneration) {
+        return this.directory.resolve(this.name + "-" + logGeneration + ".wal");
+    }
+
+    private Path snapshotFile(long snapshotGeneration) {
+        return this.directory.resolve(this.name + "-" + snapshotGeneration + ".snap");
+    }
+
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        private final DataOutputStream data = new DataOutputStream(this);
+        private final CRC32 crc = new CRC32();
+
+        RecordBuffer() {
+            super(1 << 12);
+        }
+
+        <T extends WithId> void append(byte op, T object, int part, Codec<T> codec) {
+            int start = this.count;
+            try {
+                this.data.writeLong(0);
+                this.data.writeByte(op);
+                if (op == SAVE) {
+                    codec.write(object, this.data);
+                } else {
+                    this.data.writeInt(object.getId());
+                    if (op == PART) {
+                        codec.writePart(object, part, this.data);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                this.count = start;
+                throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+            }
+            int length = this.count - start - HEADER;
+            this.crc.reset();
+            this.crc.update(this.buf, start + HEADER, length);
+            putInt(start, length);
+            putInt(start + 4, (int) this.crc.getValue());
+        }
+
+        void writeTo(FileChannel out) throws IOException {
+            ByteBuffer bytes = ByteBuffer.wrap(this.buf, 0, this.count);
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            reset();
+        }
+
+        private void putInt(int at, int value) {
+            this.buf[at] = (byte) (value >>> 24);
+            this.buf[at + 1] = (byte) (value >>> 16);
+            this.buf[at + 2] = (byte) (value >>> 8);
+            this.buf[at + 3] = (byte) value;
+        }
+    }
+}
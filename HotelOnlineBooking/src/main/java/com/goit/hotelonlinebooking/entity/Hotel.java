@@ -1,28 +1,88 @@
 package com.goit.hotelonlinebooking.entity;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+// A reservation is a compare-and-set on the hotel's RoomStates, by room slot. The try* methods do only that and never
+// block; the others take the hotel lock around it, which keeps the all-or-nothing batches and the dated bookings of
+// the Controller from interleaving. Free-room reads take no lock in either mode: they walk a bitmap that every change
+// updates atomically. Everything else about a hotel and its rooms is fixed when it is created.
 public class Hotel extends WithId {
-    private int id;
-    private String hotelName;
-    private String cityName;
-    private String address;
-    private String emailHotel;
-    private int rating;
-    private List<Room> rooms;
+    private final int id;
+    private final String hotelName;
+    // the city by its NameDictionary.CITIES code, one String per city however many hotels and snapshots repeat it
+    private final int cityCode;
+    private final String address;
+    private final String emailHotel;
+    private final int rating;
+    private final List<Room> rooms;
+    private final RoomStates states;
+    // slots ordered by price, then room id
+    private final int[] byPrice;
+    // one lock per hotel: reservations in different hotels never wait for each other
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile ReservationListener reservationListener;
 
     public Hotel(int id, String hotelName, String cityName, String address, String emailHotel, int rating, List<Room> rooms) {
         this.id = id;
         this.hotelName = hotelName;
-        this.cityName = cityName;
+        this.cityCode = NameDictionary.CITIES.encode(cityName);
         this.address = address;
         this.emailHotel = emailHotel;
         this.rating = rating;
-        this.rooms = rooms;
+        // a copy: the rooms of a hotel are fixed, and getRooms() hands out this list itself
+        this.rooms = rooms == null ? null : List.copyOf(rooms);
+        this.states = new RoomStates(rooms);
+        this.byPrice = rooms == null ? new int[0] : slotsByPrice(rooms);
+        if (rooms != null) {
+            for (int i = 0; i < rooms.size(); i++) {
+                Room room = rooms.get(i);
+                if (room.getHotelId() != id) {
+                    throw new IllegalArgumentException("Room " + room.getId() + " is made for hotel "
+                            + room.getHotelId() + ", not for hotel " + id);
+                }
+                room.attach(this, i, this.states);
+            }
+        }
+    }
+
+    // slots by price, then room id, sorted as packed longs so that no slot is boxed: the first sort ranks the rooms
+    // by id, the second sorts (price, rank) pairs
+    private static int[] slotsByPrice(List<Room> rooms) {
+        int size = rooms.size();
+        long[] keys = new long[size];
+        for (int slot = 0; slot < size; slot++) {
+            keys[slot] = (long) rooms.get(slot).getId() << 32 | slot;
+        }
+        Arrays.sort(keys);
+        int[] slotsById = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            int slot = (int) keys[rank];
+            slotsById[rank] = slot;
+            keys[rank] = (long) rooms.get(slot).getPrice() << 32 | rank;
+        }
+        Arrays.sort(keys);
+        int[] byPrice = new int[size];
+        for (int i = 0; i < size; i++) {
+            byPrice[i] = slotsById[(int) keys[i]];
+        }
+        return byPrice;
     }
 
     public String getCityName() {
-        return cityName;
+        return NameDictionary.CITIES.decode(this.cityCode);
+    }
+
+    // NameDictionary.NONE for a hotel without a city
+    public int getCityCode() {
+        return cityCode;
     }
 
     public String getHotelName() {
@@ -45,39 +105,275 @@ public class Hotel extends WithId {
         return emailHotel;
     }
 
+    // unmodifiable
     public List<Room> getRooms() {
-        return rooms;
+        return this.rooms;
     }
 
-    public void setRooms(List<Room> rooms) {
-        this.rooms = rooms;
+    public ReentrantLock getLock() {
+        return this.lock;
     }
 
+    public boolean reserveRoom(int roomId, User user) {
+        this.lock.lock();
+        try {
+            return tryReserveRoom(roomId, user);
+        } finally {
+            this.lock.unlock();
+        }
+    }
 
-    public boolean equals(Object object) {
-        if (this == object) return true;
-        if (!(object instanceof Hotel)) return false;
-        if (!super.equals(object)) return false;
+    public boolean releaseRoom(int roomId) {
+        this.lock.lock();
+        try {
+            return tryReleaseRoom(roomId);
+        } finally {
+            this.lock.unlock();
+        }
+    }
 
-        Hotel hotel = (Hotel) object;
+    // optimistic reserveRoom(): no lock, false as soon as another booking got the room first
+    public boolean tryReserveRoom(int roomId, User user) {
+        Room room = getRoomById(roomId);
+        return room != null && room.compareAndSetUserReserved(null, user);
+    }
 
-        if (getId() != hotel.getId()) return false;
-        if (getRating() != hotel.getRating()) return false;
-        if (getHotelName() != null ? !getHotelName().equals(hotel.getHotelName()) : hotel.getHotelName() != null)
-            return false;
-        if (getCityName() != null ? !getCityName().equals(hotel.getCityName()) : hotel.getCityName() != null)
+    // optimistic releaseRoom(): fails only if the room is unknown or not reserved by the time it gets there
+    public boolean tryReleaseRoom(int roomId) {
+        Room room = getRoomById(roomId);
+        if (room == null) {
             return false;
+        }
+        for (User user = room.getUserReserved(); user != null; user = room.getUserReserved()) {
+            if (room.compareAndSetUserReserved(user, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // sets the reservation of a room to user, or frees it for null, whatever it was before; e.g. to replay a logged
+    // booking. False for an unknown room
+    public boolean restoreReservation(int roomId, User user) {
+        this.lock.lock();
+        try {
+            Room room = getRoomById(roomId);
+            if (room == null) {
+                return false;
+            }
+            User current = room.getUserReserved();
+            while (!room.compareAndSetUserReserved(current, user)) {
+                current = room.getUserReserved();
+            }
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // all or nothing: either every listed room gets reserved for user, or none does. Returns -1 on success, otherwise
+    // the position in roomIds of the first room that is unknown, listed twice or already reserved
+    public int reserveRooms(int[] roomIds, User user) {
+        this.lock.lock();
+        try {
+            return tryReserveRooms(roomIds, user);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // optimistic reserveRooms(): no lock, still all or nothing. A room taken by another booking between the check and
+    // the compare-and-set undoes what is done so far, so others may see part of a batch for that long
+    public int tryReserveRooms(int[] roomIds, User user) {
+        Room[] found = findRooms(roomIds);
+        for (int i = 0; i < found.length; i++) {
+            if (found[i] == null || found[i].getUserReserved() != null) {
+                return i;
+            }
+        }
+        for (int i = 0; i < found.length; i++) {
+            if (!found[i].compareAndSetUserReserved(null, user)) {
+                for (int j = 0; j < i; j++) {
+                    found[j].compareAndSetUserReserved(user, null);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // all or nothing, like reserveRooms(): fails on the first room that is unknown, listed twice or not reserved
+    public int releaseRooms(int[] roomIds) {
+        this.lock.lock();
+        try {
+            return tryReleaseRooms(roomIds);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // optimistic releaseRooms(), undone the same way as tryReserveRooms()
+    public int tryReleaseRooms(int[] roomIds) {
+        Room[] found = findRooms(roomIds);
+        User[] previous = new User[found.length];
+        for (int i = 0; i < found.length; i++) {
+            if (found[i] == null || (previous[i] = found[i].getUserReserved()) == null) {
+                return i;
+            }
+        }
+        for (int i = 0; i < found.length; i++) {
+            if (!found[i].compareAndSetUserReserved(previous[i], null)) {
+                for (int j = 0; j < i; j++) {
+                    found[j].compareAndSetUserReserved(null, previous[j]);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public Room getRoomById(int roomId) {
+        List<Room> rooms = this.rooms;
+        if (rooms != null) {
+            for (Room room : rooms) {
+                if (room.getId() == roomId) {
+                    return room;
+                }
+            }
+        }
+        return null;
+    }
 
-        return true;
+    // the rooms for roomIds in one pass over the hotel; null for an unknown id and for the repeats of an id
+    private Room[] findRooms(int[] roomIds) {
+        Room[] found = new Room[roomIds.length];
+        Map<Integer, Integer> positions = new HashMap<>(roomIds.length * 2);
+        for (int i = 0; i < roomIds.length; i++) {
+            positions.putIfAbsent(roomIds[i], i);
+        }
+        List<Room> rooms = this.rooms;
+        if (rooms != null) {
+            for (Room room : rooms) {
+                Integer position = positions.get(room.getId());
+                if (position != null && found[position] == null) {
+                    found[position] = room;
+                }
+            }
+        }
+        return found;
     }
 
+    public int getFreeRoomCount() {
+        return this.states.freeCount();
+    }
+
+    public List<Room> getFreeRooms() {
+        List<Room> freeRoomList = new ArrayList<>(getFreeRoomCount());
+        forEachFreeRoom(freeRoomList::add);
+        return freeRoomList;
+    }
+
+    // never blocks; a room whose reservation changes meanwhile may or may not be included
+    public void forEachFreeRoom(Consumer<Room> action) {
+        for (int w = 0; w < this.states.freeWords(); w++) {
+            for (long word = this.states.freeWord(w); word != 0; word &= word - 1) {
+                int slot = (w << 6) + Long.numberOfTrailingZeros(word);
+                // the bitmap may lag behind a booking in progress; the reservation itself has the last word
+                if (this.states.get(slot) == null) {
+                    action.accept(this.rooms.get(slot));
+                }
+            }
+        }
+    }
+
+    // the free rooms priced minPrice..maxPrice, cheapest first and by room id within a price. The order is fixed when
+    // the rooms are set and the free bitmap says which rooms to skip, so bookings have nothing to keep up to date and
+    // a walk costs the rooms it passes
+    public Iterator<Room> freeRoomsByPrice(int minPrice, int maxPrice) {
+        int[] byPrice = this.byPrice;
+        int low = 0;
+        int high = byPrice.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.rooms.get(byPrice[middle]).getPrice() < minPrice) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int first = low;
+        return new Iterator<Room>() {
+            private int position = first;
+            private Room next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            @Override
+            public Room next() {
+                if (this.next == null) {
+                    throw new NoSuchElementException();
+                }
+                Room room = this.next;
+                this.next = advance();
+                return room;
+            }
+
+            private Room advance() {
+                while (this.position < byPrice.length) {
+                    int slot = byPrice[this.position++];
+                    Room room = Hotel.this.rooms.get(slot);
+                    if (room.getPrice() > maxPrice) {
+                        this.position = byPrice.length;
+                        return null;
+                    }
+                    if (Hotel.this.states.isFree(slot) && Hotel.this.states.get(slot) == null) {
+                        return room;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    public void setReservationListener(ReservationListener reservationListener) {
+        this.reservationListener = reservationListener;
+    }
+
+    // called by Room after each change. Copies the room's current reservation rather than the one that caused the
+    // call, and again if the version moved meanwhile, so racing changes of one room always leave its latest state
+    void roomReservationChanged(int slot) {
+        int version;
+        do {
+            version = this.states.version(slot);
+            User user = this.states.get(slot);
+            this.states.setFree(slot, user == null);
+            ReservationListener listener = this.reservationListener;
+            if (listener != null) {
+                listener.reservationChanged(this, slot, user);
+            }
+        } while (this.states.version(slot) != version);
+    }
+
+    // told about reservation changes of a room, by position in getRooms(), with the room's current reservation. Calls
+    // may come from several threads at once and repeat a change already reported; the last call is the current state.
+    public interface ReservationListener {
+        void reservationChanged(Hotel hotel, int slot, User user);
+    }
+
+    // hotels are the same hotel when their ids are
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) return true;
+        if (!(object instanceof Hotel)) return false;
+        return this.id == ((Hotel) object).id;
+    }
+
+    @Override
     public int hashCode() {
-        int result = super.hashCode();
-        result = 31 * result + (int) (getId() ^ (getId() >>> 32));
-        result = 31 * result + (getHotelName() != null ? getHotelName().hashCode() : 0);
-        result = 31 * result + (getCityName() != null ? getCityName().hashCode() : 0);
-        result = 31 * result + getRating();
-        return result;
+        return Integer.hashCode(this.id);
     }
 
     @Override
@@ -85,7 +381,7 @@ public class Hotel extends WithId {
         return "Hotel : [" +
                 "id = " + id +
                 ", hotelName = '" + hotelName + '\'' +
-                ", cityName = '" + cityName + '\'' +
+                ", cityName = '" + getCityName() + '\'' +
                 ", address = '" + address + '\'' +
                 ", emailHotel = '" + emailHotel + '\'' +
                 ", rating = " + rating +
@@ -0,0 +1,64 @@
+package com.goit.hotelonlinebooking.entity;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// a dense int code for every name it has seen, and one String per name. Hotels keep the code of their city, so
+// hotels, snapshots and queries share a single copy of each city name and compare cities as ints. Codes are never
+// given back: a name keeps its code for the life of the process, like an interned String
+public final class NameDictionary {
+
+    public static final int NONE = -1;
+
+    public static final NameDictionary CITIES = new NameDictionary();
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    // names by code; replaced by a longer copy when full, and only ever written under the lock
+    private volatile String[] names = new String[16];
+    private int size;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // the code of the name, given the next free code if it has none yet
+    public int encode(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        Integer code = this.codes.get(name);
+        if (code != null) {
+            return code;
+        }
+        this.lock.lock();
+        try {
+            code = this.codes.get(name);
+            if (code == null) {
+                code = this.size;
+                String[] current = this.names;
+                if (code == current.length) {
+                    current = Arrays.copyOf(current, current.length * 2);
+                }
+                current[code] = name;
+                this.names = current;
+                this.size++;
+                this.codes.put(name, code);
+            }
+            return code;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // NONE for a name nothing has been encoded with, which then matches no hotel
+    public int find(String name) {
+        Integer code = name == null ? null : this.codes.get(name);
+        return code == null ? NONE : code;
+    }
+
+    public String decode(int code) {
+        return code == NONE ? null : this.names[code];
+    }
+
+    public int size() {
+        return this.codes.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.goit.hotelonlinebooking.entity;
+
+import java.time.LocalDate;
+
+public class Reservation extends WithId {
+    private final int id;
+    private final int hotelId;
+    private final int roomId;
+    private final User user;
+    private final LocalDate checkIn;
+    private final LocalDate checkOut;
+
+    public Reservation(int id, int hotelId, int roomId, User user, LocalDate checkIn, LocalDate checkOut) {
+        this.id = id;
+        this.hotelId = hotelId;
+        this.roomId = roomId;
+        this.user = user;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getHotelId() {
+        return hotelId;
+    }
+
+    public int getRoomId() {
+        return roomId;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    // the guest leaves on this day, so the night before it is the last one reserved
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    public boolean overlaps(LocalDate from, LocalDate to) {
+        return this.checkIn.isBefore(to) && this.checkOut.isAfter(from);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return this.id == ((Reservation) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(this.id);
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation : [" +
+                "id = " + id +
+                ", hotelId = " + hotelId +
+                ", roomId = " + roomId +
+                ", user = " + (user != null ? user.getId() : null) +
+                ", checkIn = " + checkIn +
+                ", checkOut = " + checkOut +
+                ']';
+    }
+}
@@ -1,24 +1,38 @@
 package com.goit.hotelonlinebooking.entity;
 
+// A room's attributes never change, and neither does its identity: the id of the hotel it is made for and its own.
+// Its reservation is kept by its hotel (RoomStates), so handing a Room around or caching it shares nothing that a
+// booking writes; getUserReserved() always reads the current reservation.
 public class Room extends WithId {
-    private int id;
-    private int price;
-    private int floor;
-    private int capacity;
-    private User userReserved;
+    private final int hotelId;
+    private final int id;
+    private final int price;
+    private final int floor;
+    private final int capacity;
+    // the reservation the room is created with, until it joins its hotel
+    private final User initialReservation;
+    // set once by attach(): hotel and slot are written before states and read after it
+    private Hotel hotel;
+    private int slot;
+    private volatile RoomStates states;
 
-    public Room(int id, int price, int floor, int capacity, User userReserved) {
+    public Room(int hotelId, int id, int price, int floor, int capacity, User userReserved) {
+        this.hotelId = hotelId;
         this.id = id;
         this.price = price;
         this.floor = floor;
         this.capacity = capacity;
-        this.userReserved = userReserved;
+        this.initialReservation = userReserved;
     }
 
     public int getId() {
         return id;
     }
 
+    public int getHotelId() {
+        return hotelId;
+    }
+
     public int getFloor() {
         return floor;
     }
@@ -32,35 +46,60 @@ public class Room extends WithId {
     }
 
     public User getUserReserved() {
-        return userReserved;
+        RoomStates states = this.states;
+        return states == null ? this.initialReservation : states.get(this.slot);
+    }
+
+    // lock-free: changes the reservation only if it is still expected, so of two concurrent bookings of a free room
+    // exactly one succeeds and the other learns about the conflict without waiting
+    public boolean compareAndSetUserReserved(User expected, User userReserved) {
+        if (!states().compareAndSet(this.slot, expected, userReserved)) {
+            return false;
+        }
+        this.hotel.roomReservationChanged(this.slot);
+        return true;
+    }
+
+    private RoomStates states() {
+        RoomStates states = this.states;
+        if (states == null) {
+            throw new IllegalStateException("Room " + this.id + " belongs to no hotel");
+        }
+        return states;
     }
 
-    public void setUserReserved(User userReserved) {
-        this.userReserved = userReserved;
+    // null until the room joins its hotel
+    public Hotel getHotel() {
+        return this.states == null ? null : this.hotel;
     }
 
+    // the position of the room in getHotel().getRooms(); 0 until the room joins its hotel
+    public int getSlot() {
+        return this.states == null ? 0 : this.slot;
+    }
+
+    // a room joins one hotel, once; Hotel's constructor checks that it is the hotel the room was made for
+    void attach(Hotel hotel, int slot, RoomStates states) {
+        if (this.states != null) {
+            throw new IllegalStateException("Room " + this.id + " already belongs to hotel " + this.hotel.getId());
+        }
+        this.hotel = hotel;
+        this.slot = slot;
+        this.states = states;
+    }
+
+    // room ids are unique within a hotel, so a room is its hotel's id and its own
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-
         Room room = (Room) o;
-
-        if (id != room.id) return false;
-        if (price != room.price) return false;
-        if (floor != room.floor) return false;
-        if (capacity != room.capacity) return false;
-        return userReserved != null ? userReserved.equals(room.userReserved) : room.userReserved == null;
+        return this.id == room.id && this.hotelId == room.hotelId;
     }
 
     @Override
     public int hashCode() {
-        int result = (int) (id ^ (id >>> 32));
-        result = 31 * result + (int) (price ^ (price >>> 32));
-        result = 31 * result + floor;
-        result = 31 * result + capacity;
-        result = 31 * result + (userReserved != null ? userReserved.hashCode() : 0);
-        return result;
+        return 31 * this.hotelId + this.id;
     }
 
     @Override
@@ -70,7 +109,7 @@ public class Room extends WithId {
                 ", price = " + price +
                 ", floor = " + floor +
                 ", capacity = " + capacity +
-                ", userReserved = " + userReserved +
+                ", userReserved = " + getUserReserved() +
                 ']';
     }
 }
\ No newline at end of file
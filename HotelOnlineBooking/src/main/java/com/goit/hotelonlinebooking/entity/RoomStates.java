@@ -0,0 +1,81 @@
+package com.goit.hotelonlinebooking.entity;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// the reservations of the rooms of one hotel, by slot: who holds each room, a version that every change bumps, and a
+// bitmap of the free rooms. Rooms read their reservation here instead of keeping it, so a Room never changes once it
+// belongs to a hotel and can be shared and cached as it is
+final class RoomStates {
+
+    private final AtomicReferenceArray<User> users;
+    private final AtomicIntegerArray versions;
+    // bit i is set while room i has no reservation; follows users, see Hotel.roomReservationChanged()
+    private final AtomicLongArray free;
+    private final AtomicInteger freeCount = new AtomicInteger();
+
+    // starts from the reservations the rooms have now
+    RoomStates(List<Room> rooms) {
+        int size = rooms == null ? 0 : rooms.size();
+        this.users = new AtomicReferenceArray<>(size);
+        this.versions = new AtomicIntegerArray(size);
+        this.free = new AtomicLongArray((size + 63) >>> 6);
+        for (int slot = 0; slot < size; slot++) {
+            User user = rooms.get(slot).getUserReserved();
+            this.users.set(slot, user);
+            setFree(slot, user == null);
+        }
+    }
+
+    User get(int slot) {
+        return this.users.get(slot);
+    }
+
+    int version(int slot) {
+        return this.versions.get(slot);
+    }
+
+    // by reference, like a compare-and-set on a field
+    boolean compareAndSet(int slot, User expected, User user) {
+        if (!this.users.compareAndSet(slot, expected, user)) {
+            return false;
+        }
+        this.versions.getAndIncrement(slot);
+        return true;
+    }
+
+    int freeCount() {
+        return this.freeCount.get();
+    }
+
+    boolean isFree(int slot) {
+        return (this.free.get(slot >>> 6) & (1L << slot)) != 0;
+    }
+
+    int freeWords() {
+        return this.free.length();
+    }
+
+    // bit i of word w is room 64 * w + i
+    long freeWord(int w) {
+        return this.free.get(w);
+    }
+
+    void setFree(int slot, boolean isFree) {
+        int w = slot >>> 6;
+        long bit = 1L << slot;
+        long word;
+        long updated;
+        do {
+            word = this.free.get(w);
+            updated = isFree ? word | bit : word & ~bit;
+            if (updated == word) {
+                return;
+            }
+        } while (!this.free.compareAndSet(w, word, updated));
+        this.freeCount.addAndGet(isFree ? 1 : -1);
+    }
+}
@@ -3,13 +3,13 @@ package com.goit.hotelonlinebooking.entity;
 import java.util.Random;
 
 public class User extends WithId {
-    private int id;
-    private String name;
-    private String lastName;
-    private int age;
-    private String email;
-    private String userPhoneNumber;
-    private String hashedPassword;
+    private final int id;
+    private final String name;
+    private final String lastName;
+    private final int age;
+    private final String email;
+    private final String userPhoneNumber;
+    private final String hashedPassword;
 
     public User(int id, String name, String lastName, int age, String email, String userPhoneNumber, String hashedPassword) {
         this.id = id;
@@ -53,33 +53,17 @@ public class User extends WithId {
         return hashedPassword;
     }
 
+    // users are the same user when their ids are
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-
-        User user = (User) o;
-
-        if (id != user.id) return false;
-        if (age != user.age) return false;
-        if (name != null ? !name.equals(user.name) : user.name != null) return false;
-        if (lastName != null ? !lastName.equals(user.lastName) : user.lastName != null) return false;
-        if (email != null ? !email.equals(user.email) : user.email != null) return false;
-        if (userPhoneNumber != null ? !userPhoneNumber.equals(user.userPhoneNumber) : user.userPhoneNumber != null)
-            return false;
-        return hashedPassword != null ? hashedPassword.equals(user.hashedPassword) : user.hashedPassword == null;
+        return this.id == ((User) o).id;
     }
 
     @Override
     public int hashCode() {
-        int result = (int) (id ^ (id >>> 32));
-        result = 31 * result + (name != null ? name.hashCode() : 0);
-        result = 31 * result + (lastName != null ? lastName.hashCode() : 0);
-        result = 31 * result + age;
-        result = 31 * result + (email != null ? email.hashCode() : 0);
-        result = 31 * result + (userPhoneNumber != null ? userPhoneNumber.hashCode() : 0);
-        result = 31 * result + (hashedPassword != null ? hashedPassword.hashCode() : 0);
-        return result;
+        return Integer.hashCode(this.id);
     }
 
     @Override
@@ -0,0 +1,6 @@
+package com.goit.hotelonlinebooking.metrics;
+
+// called on the thread that recorded the event, so it should be quick; nanos is -1 for events that are not timed
+public interface EventListener {
+    void onEvent(Operation operation, Outcome outcome, long nanos);
+}
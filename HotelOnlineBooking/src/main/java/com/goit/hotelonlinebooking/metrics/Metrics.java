@@ -0,0 +1,133 @@
+package com.goit.hotelonlinebooking.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// counters per operation and outcome plus a latency histogram per operation. Recording touches only LongAdders and
+// builds no strings, so it stays cheap under contention; text is produced only by scrape() and dump().
+public class Metrics {
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final LongAdder[] counts = new LongAdder[OPERATIONS.length * OUTCOMES.length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private volatile EventListener listener;
+
+    public Metrics() {
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = new LongAdder();
+        }
+        for (int i = 0; i < this.latencies.length; i++) {
+            this.latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    // an operation that started at startNanos (System.nanoTime()) has just ended with outcome
+    public void record(Operation operation, Outcome outcome, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        this.counts[operation.ordinal() * OUTCOMES.length + outcome.ordinal()].increment();
+        this.latencies[operation.ordinal()].record(nanos);
+        EventListener current = this.listener;
+        if (current != null) {
+            current.onEvent(operation, outcome, nanos);
+        }
+    }
+
+    // counted but not timed
+    public void event(Operation operation, Outcome outcome) {
+        this.counts[operation.ordinal() * OUTCOMES.length + outcome.ordinal()].increment();
+        EventListener current = this.listener;
+        if (current != null) {
+            current.onEvent(operation, outcome, -1);
+        }
+    }
+
+    public void setListener(EventListener listener) {
+        this.listener = listener;
+    }
+
+    public long getCount(Operation operation, Outcome outcome) {
+        return this.counts[operation.ordinal() * OUTCOMES.length + outcome.ordinal()].sum();
+    }
+
+    public long getCount(Operation operation) {
+        long count = 0;
+        for (Outcome outcome : OUTCOMES) {
+            count += getCount(operation, outcome);
+        }
+        return count;
+    }
+
+    public LatencyHistogram getLatency(Operation operation) {
+        return this.latencies[operation.ordinal()];
+    }
+
+    public void reset() {
+        for (LongAdder count : this.counts) {
+            count.reset();
+        }
+        for (LatencyHistogram latency : this.latencies) {
+            latency.reset();
+        }
+    }
+
+    // Prometheus text exposition format; outcomes that never happened are left out
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        out.append("# TYPE hotel_requests_total counter\n");
+        for (Operation operation : OPERATIONS) {
+            for (Outcome outcome : OUTCOMES) {
+                long count = getCount(operation, outcome);
+                if (count != 0) {
+                    out.append("hotel_requests_total{operation=\"").append(operation.getTag())
+                            .append("\",outcome=\"").append(outcome.getTag()).append("\"} ").append(count).append('\n');
+                }
+            }
+        }
+        out.append("# TYPE hotel_request_duration_nanos histogram\n");
+        for (Operation operation : OPERATIONS) {
+            LatencyHistogram latency = getLatency(operation);
+            long total = 0;
+            int last = LatencyHistogram.BUCKETS - 1;
+            while (last > 0 && latency.getBucketCount(last) == 0) {
+                last--;
+            }
+            for (int bucket = 0; bucket <= last; bucket++) {
+                total += latency.getBucketCount(bucket);
+                out.append("hotel_request_duration_nanos_bucket{operation=\"").append(operation.getTag())
+                        .append("\",le=\"").append(LatencyHistogram.upperBound(bucket)).append("\"} ")
+                        .append(total).append('\n');
+            }
+            out.append("hotel_request_duration_nanos_bucket{operation=\"").append(operation.getTag())
+                    .append("\",le=\"+Inf\"} ").append(total).append('\n');
+            out.append("hotel_request_duration_nanos_sum{operation=\"").append(operation.getTag()).append("\"} ")
+                    .append(latency.getTotalNanos()).append('\n');
+            out.append("hotel_request_duration_nanos_count{operation=\"").append(operation.getTag()).append("\"} ")
+                    .append(total).append('\n');
+        }
+        return out.toString();
+    }
+
+    // one line per operation that ran: count, mean and percentiles in microseconds, then the outcome counts
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        for (Operation operation : OPERATIONS) {
+            long count = getCount(operation);
+            if (count == 0) {
+                continue;
+            }
+            LatencyHistogram latency = getLatency(operation);
+            out.append(String.format("%-9s count=%d mean=%.1fus p50<=%.1fus p99<=%.1fus",
+                    operation.getTag(), count, latency.getMeanNanos() / 1000.0,
+                    latency.getPercentileNanos(0.5) / 1000.0, latency.getPercentileNanos(0.99) / 1000.0));
+            for (Outcome outcome : OUTCOMES) {
+                long outcomeCount = getCount(operation, outcome);
+                if (outcomeCount != 0) {
+                    out.append(' ').append(outcome.getTag()).append('=').append(outcomeCount);
+                }
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.goit.hotelonlinebooking.metrics;
+
+import java.util.Locale;
+
+// what a recorded event belongs to; STORE covers the checks the DAOs make on their own
+public enum Operation {
+    REGISTER,
+    LOGIN,
+    SEARCH,
+    BOOK,
+    CANCEL,
+    STORE;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,48 @@
+package com.goit.hotelonlinebooking.metrics;
+
+import java.util.Locale;
+
+// how an operation ended; the message is the text the console used to show for it
+public enum Outcome {
+    OK("Done"),
+    NOT_AUTHENTICATED("Perform user authentication. Use the method \"login\""),
+    USER_NOT_FOUND("Sorry. This user does not exist"),
+    HOTEL_NOT_FOUND("Sorry, hotel not found"),
+    ROOM_NOT_FOUND("Error. Room not found"),
+    ALREADY_RESERVED("Room is already reserved"),
+    NOT_RESERVED("Room is not reserved"),
+    DUPLICATE_ROOM("Room is listed more than once"),
+    RESERVED_WITHOUT_DATES("Room is reserved without dates"),
+    RESERVED_WITH_DATES("Room has reservations with dates that have not ended yet"),
+    INVALID_DATES("Check-out date must be after check-in date"),
+    DATES_TAKEN("Room is already reserved between these dates"),
+    RESERVATION_NOT_FOUND("Sorry, reservation not found"),
+    NOTHING_FOUND("Nothing found"),
+    INVALID_PARAMETER("Unknown or malformed search parameter"),
+    INVALID_PHONE("Phone number must contain 10 digits: For example 0967543231"),
+    INVALID_EMAIL("e-mail must contain \"@\" and \".\""),
+    DUPLICATE_ID("Object with this ID already exists"),
+    DUPLICATE_EMAIL("User with this email exists"),
+    DUPLICATE_PHONE("User with this phone number exists"),
+    EMPTY_LIST("Objects list is empty"),
+    NOT_IN_LIST("Object does not exist");
+
+    private final String message;
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    Outcome(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public boolean isSuccess() {
+        return this == OK;
+    }
+}
@@ -13,6 +13,9 @@ public class Main {
     public static void main(String[] args) {
 
         Controller controller = new Controller();
+        // show the outcome of every operation on the console
+        controller.getMetrics().setListener((operation, outcome, nanos) ->
+                System.out.println(operation.getTag() + ": " + outcome.getMessage()));
         //User registration and creation of a list of users
         controller.userRegistration(new User(001, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty"));
         controller.userRegistration(new User(002, "Petr", "Petrov", 27, "petrov@i.ua", "0689871234", "123"));
@@ -63,5 +66,10 @@ public class Main {
         for (Object r : controller.findRoom(paramRoom)) {
             System.out.println(r);
         }
+        System.out.println();
+
+        System.out.print(controller.getMetrics().dump());
+        System.out.println("hotels by city cache: " + controller.getHotelsByCityCache());
+        System.out.println("free rooms cache: " + controller.getFreeRoomsByHotelCache());
     }
 }
@@ -0,0 +1,63 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import com.goit.hotelonlinebooking.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AbstractDAOTest {
+
+    // TC1: getList().get() reads by position in insertion order, whatever holes deletes have left behind
+    @Test
+    void test_TC1_Get_SkipsDeletedObjects() {
+        UserDAO userDAO = new UserDAO();
+        new DataGenerator(3).users(500).forEachUser(userDAO::save);
+        List<User> expected = new ArrayList<>(userDAO.getList());
+        Random random = new Random(11);
+        // enough deletes to compact several times, checked between them
+        for (int i = 0; i < 150; i++) {
+            User deleted = expected.remove(random.nextInt(expected.size()));
+            userDAO.delete(deleted);
+            if (i % 7 == 0) {
+                User added = new User(1000 + i, "New", "User", 30, "new" + i + "@i.ua",
+                        String.format("07%08d", i), "pass");
+                userDAO.save(added);
+                expected.add(added);
+            }
+            int index = random.nextInt(expected.size());
+            assertSame(expected.get(index), userDAO.getList().get(index));
+        }
+        assertEquals(expected.size(), userDAO.getList().size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), userDAO.getList().get(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> userDAO.getList().get(expected.size()));
+    }
+
+    // TC2: a caller that already holds the read lock can read by position
+    @Test
+    void test_TC2_Get_UnderReadLock() {
+        LockingUserDAO userDAO = new LockingUserDAO();
+        new DataGenerator(3).users(10).forEachUser(userDAO::save);
+        userDAO.delete(userDAO.objectById(2));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertEquals(3, userDAO.idAtUnderReadLock(1)));
+    }
+
+    private static class LockingUserDAO extends UserDAO {
+        int idAtUnderReadLock(int index) {
+            readLock().lock();
+            try {
+                return getList().get(index).getId();
+            } finally {
+                readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarRoomStoreTest {
+
+    private HotelDAO indexed;
+    private HotelDAO columnar;
+
+    @BeforeEach
+    void setUp() {
+        indexed = new HotelDAO(false, false);
+        columnar = new HotelDAO(false, true);
+        DataGenerator generator = new DataGenerator(11).cities(8).hotels(300);
+        generator.forEachHotel(indexed::save);
+        generator.forEachHotel(columnar::save);
+    }
+
+    // TC1: both room stores answer the same queries with the same rooms
+    @Test
+    void test_TC1_SameResultsAsIndexes() {
+        User guest = new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty");
+        for (int id = 1; id <= 300; id += 3) {
+            reserveFirstRoom(indexed, id, guest);
+            reserveFirstRoom(columnar, id, guest);
+        }
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            int minPrice = 100 + random.nextInt(1500);
+            int capacity = 1 + random.nextInt(4);
+            boolean onlyFree = random.nextBoolean();
+            String city = random.nextInt(3) == 0 ? DataGenerator.cityName(random.nextInt(8)) : null;
+            assertSameRooms(query(minPrice, capacity, onlyFree, city), indexed, columnar);
+        }
+    }
+
+    // TC2: removing hotels compacts the columns without losing the rooms of the remaining hotels
+    @Test
+    void test_TC2_DeleteCompactsRows() {
+        List<Hotel> toDelete = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) {
+            toDelete.add(columnar.objectById(id));
+            indexed.delete(indexed.objectById(id));
+        }
+        columnar.deleteList(toDelete);
+
+        assertEquals(indexed.getAllRoom().size(), columnar.getAllRoom().size());
+        assertEquals(new HashSet<>(indexed.getAllRoom()), new HashSet<>(columnar.getAllRoom()));
+        Hotel hotel = columnar.objectById(250);
+        Room room = hotel.getRooms().get(hotel.getRooms().size() - 1);
+        int freeBefore = columnar.countRooms(new RoomQuery().inHotel(hotel.getHotelName()).onlyFree());
+        User guest = new User(2, "Petr", "Petrov", 27, "petrov@i.ua", "0689871234", "123");
+        hotel.reserveRoom(room.getId(), guest);
+        indexed.objectById(250).reserveRoom(room.getId(), guest);
+        assertEquals(freeBefore - 1, columnar.countRooms(new RoomQuery().inHotel(hotel.getHotelName()).onlyFree()));
+        assertSameRooms(new RoomQuery().onlyFree(), indexed, columnar);
+    }
+
+    // TC3: rooms deleted one hotel at a time leave the sorted indexes as if the remaining hotels had been saved alone,
+    // order included, through any number of bucket compactions
+    @Test
+    void test_TC3_IndexedDeletes_KeepOrder() {
+        Random random = new Random(8);
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            ids.add(id);
+        }
+        Collections.shuffle(ids, random);
+        HashSet<Integer> deleted = new HashSet<>(ids.subList(0, 250));
+        for (int id : ids.subList(0, 250)) {
+            indexed.delete(indexed.objectById(id));
+        }
+        HotelDAO remaining = new HotelDAO(false, false);
+        new DataGenerator(11).cities(8).hotels(300).forEachHotel(hotel -> {
+            if (!deleted.contains(hotel.getId())) {
+                remaining.save(hotel);
+            }
+        });
+
+        assertEquals(remaining.getAllRoom(), indexed.getAllRoom());
+        for (int i = 0; i < 50; i++) {
+            RoomQuery query = query(100 + random.nextInt(1500), 1 + random.nextInt(4), false, null);
+            assertEquals(remaining.findRoomList(query), indexed.findRoomList(query), query.toString());
+        }
+        assertEquals(remaining.findRoomList(new RoomQuery().floor(1)), indexed.findRoomList(new RoomQuery().floor(1)));
+    }
+
+    // TC4: hotels deleted from large cities leave the city and name lookups, order included, as if the remaining
+    // hotels had been saved alone
+    @Test
+    void test_TC4_Deletes_KeepCityAndNameOrder() {
+        Random random = new Random(9);
+        HashSet<Integer> deleted = new HashSet<>();
+        while (deleted.size() < 220) {
+            int id = 1 + random.nextInt(300);
+            if (deleted.add(id)) {
+                indexed.delete(indexed.objectById(id));
+            }
+        }
+        HotelDAO remaining = new HotelDAO(false, false);
+        new DataGenerator(11).cities(8).hotels(300).forEachHotel(hotel -> {
+            if (!deleted.contains(hotel.getId())) {
+                remaining.save(hotel);
+            }
+        });
+
+        for (int city = 0; city < 8; city++) {
+            String name = DataGenerator.cityName(city);
+            assertEquals(remaining.findHotelsByCity(name), indexed.findHotelsByCity(name), name);
+            assertEquals(remaining.findHotelsByCityIgnoreCase(name.toUpperCase()),
+                    indexed.findHotelsByCityIgnoreCase(name.toUpperCase()), name);
+        }
+        assertEquals(remaining.findHotelsByCityPrefix(""), indexed.findHotelsByCityPrefix(""));
+        assertEquals(remaining.findHotelsByNamePrefix(""), indexed.findHotelsByNamePrefix(""));
+        for (int id = 1; id <= 300; id++) {
+            assertEquals(deleted.contains(id), indexed.findHotelByName(DataGenerator.hotelName(id)) == null);
+        }
+    }
+
+    private static RoomQuery query(int minPrice, int capacity, boolean onlyFree, String city) {
+        RoomQuery query = new RoomQuery().priceBetween(minPrice, minPrice + 300).capacityAtLeast(capacity);
+        if (onlyFree) {
+            query.onlyFree();
+        }
+        if (city != null) {
+            query.inCity(city);
+        }
+        return query;
+    }
+
+    private static void reserveFirstRoom(HotelDAO hotelDAO, int hotelId, User user) {
+        Hotel hotel = hotelDAO.objectById(hotelId);
+        hotel.reserveRoom(hotel.getRooms().get(0).getId(), user);
+    }
+
+    private static void assertSameRooms(RoomQuery query, HotelDAO expected, HotelDAO actual) {
+        List<Room> expectedRooms = expected.findRoomList(query);
+        List<Room> actualRooms = actual.findRoomList(query);
+        assertEquals(expectedRooms.size(), actualRooms.size(), query.toString());
+        assertEquals(expectedRooms.size(), actual.countRooms(query), query.toString());
+        assertEquals(new HashSet<>(expectedRooms), new HashSet<>(actualRooms), query.toString());
+    }
+}
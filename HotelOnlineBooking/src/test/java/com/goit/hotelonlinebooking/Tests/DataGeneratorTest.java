@@ -0,0 +1,53 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataGeneratorTest {
+
+    // TC1: the same seed produces the same inventory
+    @Test
+    void test_TC1_SameSeedSameData() {
+        assertEquals(describe(new DataGenerator(7).hotels(50)), describe(new DataGenerator(7).hotels(50)));
+        assertNotEquals(describe(new DataGenerator(7).hotels(50)), describe(new DataGenerator(8).hotels(50)));
+    }
+
+    // TC2: every generated entity passes the DAO checks, so a fill saves all of them
+    @Test
+    void test_TC2_FillSavesEverything() {
+        HotelDAO hotelDAO = new HotelDAO(false);
+        UserDAO userDAO = new UserDAO();
+        new DataGenerator(7).cities(20).hotels(500).users(2000).fill(hotelDAO, userDAO);
+
+        assertEquals(500, hotelDAO.getList().size());
+        assertEquals(2000, userDAO.getList().size());
+        Set<Integer> roomIds = new HashSet<>();
+        for (Room room : hotelDAO.getAllRoom()) {
+            assertTrue(roomIds.add(room.getId()), "duplicate room id " + room.getId());
+        }
+        assertFalse(hotelDAO.findHotelsByCity(DataGenerator.cityName(0)).isEmpty());
+    }
+
+    private static List<String> describe(DataGenerator generator) {
+        List<String> hotels = new ArrayList<>();
+        generator.forEachHotel((Hotel hotel) -> {
+            StringBuilder line = new StringBuilder(hotel.getId() + " " + hotel.getCityName() + " " + hotel.getRating());
+            for (Room room : hotel.getRooms()) {
+                line.append(' ').append(room.getId()).append('/').append(room.getPrice()).append('/').append(room.getCapacity());
+            }
+            hotels.add(line.toString());
+        });
+        return hotels;
+    }
+}
@@ -0,0 +1,135 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityIdentityTest {
+
+    private final User guest = new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty");
+
+    // TC1: entities are equal by id, whatever else differs, and hash the same way
+    @Test
+    void test_TC1_EqualsAndHashCode_ById() {
+        User copy = new User(1, "Other", "Name", 40, "other@i.ua", "0670000000", "secret");
+        assertEquals(guest, copy);
+        assertEquals(guest.hashCode(), copy.hashCode());
+
+        Hotel hotel = newHotel(7, "Kiev");
+        Hotel renamed = newHotel(7, "Dnepr");
+        Set<Hotel> hotels = new HashSet<>(List.of(hotel, renamed, newHotel(8, "Kiev")));
+        assertEquals(2, hotels.size());
+        assertEquals(hotel, renamed);
+
+        // rooms are told apart by hotel as well, since room ids repeat from hotel to hotel
+        assertEquals(hotel.getRooms().get(0), renamed.getRooms().get(0));
+        assertNotEquals(hotel.getRooms().get(0), newHotel(8, "Kiev").getRooms().get(0));
+        assertNotEquals(hotel.getRooms().get(0), hotel.getRooms().get(1));
+    }
+
+    // TC2: a room's hash and equality do not move when it is booked, so it stays findable in a set
+    @Test
+    void test_TC2_BookedRoom_StaysInSet() {
+        Hotel hotel = newHotel(7, "Kiev");
+        Room room = hotel.getRooms().get(0);
+        Set<Room> cached = new HashSet<>(hotel.getRooms());
+
+        assertTrue(hotel.reserveRoom(room.getId(), guest));
+        assertTrue(cached.contains(room));
+        assertSame(guest, room.getUserReserved());
+        assertEquals(1, hotel.getRooms().size() - hotel.getFreeRoomCount());
+
+        assertTrue(hotel.releaseRoom(room.getId()));
+        assertNull(room.getUserReserved());
+        assertThrows(IllegalStateException.class, 
+                () -> new Room(7, 1, 100, 1, 1, null).compareAndSetUserReserved(null, guest));
+    }
+
+    // TC3: every hotel of a city shares one city name String
+    @Test
+    void test_TC3_CityNames_Interned() {
+        Hotel first = newHotel(7, new String("Kiev"));
+        Hotel second = newHotel(8, new String("Kiev"));
+        assertSame(first.getCityName(), second.getCityName());
+    }
+
+    // TC4: deleting through another instance with the same id removes the stored one from every index
+    @Test
+    void test_TC4_DeleteByCopy_RemovesStored() {
+        HotelDAO hotelDAO = new HotelDAO(false);
+        hotelDAO.save(newHotel(7, "Kiev"));
+        hotelDAO.delete(newHotel(7, "Dnepr"));
+        assertNull(hotelDAO.findHotelByID(7));
+        assertTrue(hotelDAO.findHotelsByCity("Kiev").isEmpty());
+
+        UserDAO userDAO = new UserDAO();
+        userDAO.save(guest);
+        userDAO.delete(new User(1, "Other", "Name", 40, "other@i.ua", "0670000000", "secret"));
+        assertTrue(userDAO.findUserByEmail(guest.getEmail()).isEmpty());
+    }
+
+    // TC5: a room keeps its hash and equality from construction on, joins only the hotel it is made for, and joins
+    // it once; the price order breaks ties by room id
+    @Test
+    void test_TC5_Room_JoinsItsHotelOnce() {
+        Room room = new Room(7, 3, 100, 1, 2, null);
+        int hash = room.hashCode();
+        Set<Room> cached = new HashSet<>(List.of(room));
+        assertNull(room.getHotel());
+
+        List<Room> rooms = new ArrayList<>(List.of(room, new Room(7, 1, 100, 1, 2, null),
+                new Room(7, 2, 50, 1, 2, null)));
+        Hotel hotel = new Hotel(7, "Hotel 7", "Kiev", "Kiev, Main street", "hotel7@ukr.net", 4, rooms);
+        assertSame(hotel, room.getHotel());
+        assertEquals(hash, room.hashCode());
+        assertTrue(cached.contains(room));
+        List<Integer> byPrice = new ArrayList<>();
+        hotel.freeRoomsByPrice(0, Integer.MAX_VALUE).forEachRemaining(free -> byPrice.add(free.getId()));
+        assertEquals(List.of(2, 1, 3), byPrice);
+
+        assertThrows(IllegalStateException.class, () -> new Hotel(7, "Hotel 7", "Kiev", "Kiev, Main street",
+                "hotel7@ukr.net", 4, List.of(room)));
+        assertSame(hotel, room.getHotel());
+        assertThrows(IllegalArgumentException.class, () -> new Hotel(8, "Hotel 8", "Kiev", "Kiev, Main street",
+                "hotel8@ukr.net", 4, List.of(new Room(7, 4, 100, 1, 2, null))));
+    }
+
+    // TC6: a hotel's rooms can not be changed through the list it was made from or the one getRooms() returns, and a
+    // restored reservation goes through the hotel like a booking
+    @Test
+    void test_TC6_Rooms_Unmodifiable() {
+        List<Room> rooms = new ArrayList<>(List.of(new Room(7, 1, 100, 1, 2, null)));
+        Hotel hotel = new Hotel(7, "Hotel 7", "Kiev", "Kiev, Main street", "hotel7@ukr.net", 4, rooms);
+        rooms.add(new Room(7, 2, 100, 1, 2, null));
+
+        assertEquals(1, hotel.getRooms().size());
+        assertThrows(UnsupportedOperationException.class, () -> hotel.getRooms().add(new Room(7, 3, 100, 1, 2, null)));
+        assertThrows(UnsupportedOperationException.class, () -> hotel.getRooms().remove(0));
+
+        assertTrue(hotel.restoreReservation(1, guest));
+        assertSame(guest, hotel.getRoomById(1).getUserReserved());
+        assertEquals(0, hotel.getFreeRoomCount());
+        assertFalse(hotel.tryReserveRoom(1, guest));
+        assertTrue(hotel.restoreReservation(1, null));
+        assertEquals(1, hotel.getFreeRoomCount());
+        assertFalse(hotel.restoreReservation(2, guest));
+    }
+
+    private static Hotel newHotel(int id, String city) {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            rooms.add(new Room(id, i, 100 * i, 1, 2, null));
+        }
+        return new Hotel(id, "Hotel " + id, city, city + ", Main street", "hotel" + id + "@ukr.net", 4, rooms);
+    }
+}
@@ -0,0 +1,99 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeRoomIndexTest {
+
+    private final User guest = new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty");
+
+    // TC1: cheapest-first pages of free rooms match a full sort, with either room store
+    @Test
+    void test_TC1_CheapestFirst_MatchesFullSort() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            HotelDAO dao = newDao(columnar);
+            Random random = new Random(3);
+            for (int i = 0; i < 200; i++) {
+                RoomQuery query = new RoomQuery().onlyFree().cheapestFirst()
+                        .capacityAtLeast(1 + random.nextInt(4))
+                        .page(random.nextInt(3), 1 + random.nextInt(20));
+                if (random.nextBoolean()) {
+                    query.inCity(DataGenerator.cityName(random.nextInt(8)));
+                } else {
+                    query.inHotel(DataGenerator.hotelName(1 + random.nextInt(300)));
+                }
+                if (random.nextBoolean()) {
+                    int minPrice = 100 + random.nextInt(1000);
+                    query.priceBetween(minPrice, minPrice + random.nextInt(1000));
+                }
+                assertEquals(bruteForce(dao, query), dao.findRoomList(query), query.toString());
+            }
+        }
+    }
+
+    // TC2: booking takes a room out of the index and cancelling puts it back in place
+    @Test
+    void test_TC2_BookAndCancel_UpdateIndex() {
+        HotelDAO dao = newDao(false);
+        String city = DataGenerator.cityName(0);
+        RoomQuery cheapest = new RoomQuery().inCity(city).capacityAtLeast(2).onlyFree().cheapestFirst().page(0, 5);
+        List<Room> before = dao.findRoomList(cheapest);
+        Room first = before.get(0);
+
+        assertTrue(first.getHotel().reserveRoom(first.getId(), guest));
+        List<Room> booked = dao.findRoomList(cheapest);
+        assertFalse(booked.contains(first));
+        assertEquals(before.subList(1, 5), booked.subList(0, 4));
+
+        assertTrue(first.getHotel().tryReleaseRoom(first.getId()));
+        assertEquals(before, dao.findRoomList(cheapest));
+        assertEquals(bruteForce(dao, cheapest), before);
+    }
+
+    // TC3: a deleted hotel leaves the index; a cheapest-first query without a city or hotel is sorted in full
+    @Test
+    void test_TC3_DeleteAndUnscopedQuery() {
+        HotelDAO dao = newDao(true);
+        Hotel hotel = dao.objectById(5);
+        RoomQuery inHotel = new RoomQuery().inHotel(hotel.getHotelName()).onlyFree().cheapestFirst();
+        assertFalse(dao.findRoomList(inHotel).isEmpty());
+
+        dao.delete(hotel);
+        assertTrue(dao.findRoomList(inHotel).isEmpty());
+        RoomQuery everywhere = new RoomQuery().capacity(3).cheapestFirst().page(1, 7);
+        assertEquals(bruteForce(dao, everywhere), dao.findRoomList(everywhere));
+    }
+
+    private HotelDAO newDao(boolean columnar) {
+        HotelDAO dao = new HotelDAO(false, columnar);
+        new DataGenerator(11).cities(8).hotels(300).forEachHotel(dao::save);
+        for (int id = 1; id <= 300; id += 2) {
+            Hotel hotel = dao.objectById(id);
+            hotel.reserveRoom(hotel.getRooms().get(id % hotel.getRooms().size()).getId(), guest);
+        }
+        return dao;
+    }
+
+    private static List<Room> bruteForce(HotelDAO dao, RoomQuery query) {
+        return dao.getAllRoom().stream()
+                .filter(query::matches)
+                .sorted(Comparator.comparingInt(Room::getPrice)
+                        .thenComparingInt((Room room) -> room.getHotel().getId())
+                        .thenComparingInt(Room::getId))
+                .skip(query.getOffset())
+                .limit(query.getLimit())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,83 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.MappedSnapshot;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private HotelDAO hotelDAO;
+    private UserDAO userDAO;
+
+    @BeforeEach
+    void setUp() {
+        hotelDAO = new HotelDAO(false);
+        userDAO = new UserDAO();
+        new DataGenerator(3).cities(15).hotels(200).users(500).fill(hotelDAO, userDAO);
+        for (int id = 1; id <= 200; id += 7) {
+            Hotel hotel = hotelDAO.objectById(id);
+            hotel.reserveRoom(hotel.getRooms().get(0).getId(), userDAO.objectById(id));
+        }
+    }
+
+    // TC1: loading the snapshot rebuilds the same users, hotels, rooms and reservations
+    @Test
+    void test_TC1_RoundTrip() throws IOException {
+        Path file = directory.resolve("inventory.snap");
+        MappedSnapshot.write(file, hotelDAO, userDAO);
+
+        HotelDAO loadedHotels = new HotelDAO(false);
+        UserDAO loadedUsers = new UserDAO();
+        MappedSnapshot.open(file).loadInto(loadedHotels, loadedUsers);
+
+        assertEquals(userDAO.getList(), loadedUsers.getList());
+        assertEquals(hotelDAO.getList().size(), loadedHotels.getList().size());
+        for (Hotel hotel : hotelDAO.getList()) {
+            Hotel loaded = loadedHotels.objectById(hotel.getId());
+            assertEquals(hotel.getHotelName(), loaded.getHotelName());
+            assertEquals(hotel.getCityName(), loaded.getCityName());
+            assertEquals(hotel.getFreeRoomCount(), loaded.getFreeRoomCount());
+            assertEquals(hotel.getRooms().toString(), loaded.getRooms().toString());
+        }
+        assertEquals(hotelDAO.findHotelsByCity(DataGenerator.cityName(0)).size(),
+                loadedHotels.findHotelsByCity(DataGenerator.cityName(0)).size());
+    }
+
+    // TC2: room records can be scanned straight from the mapping
+    @Test
+    void test_TC2_RoomsReadInPlace() throws IOException {
+        Path file = directory.resolve("inventory.snap");
+        MappedSnapshot.write(file, hotelDAO, userDAO);
+        MappedSnapshot snapshot = MappedSnapshot.open(file);
+
+        List<Room> rooms = hotelDAO.getAllRoom();
+        assertEquals(rooms.size(), snapshot.getRoomCount());
+        int reserved = 0;
+        for (int record = 0; record < snapshot.getRoomCount(); record++) {
+            Room room = rooms.get(record);
+            assertEquals(room.getId(), snapshot.roomId(record));
+            assertEquals(room.getPrice(), snapshot.roomPrice(record));
+            assertEquals(room.getFloor(), snapshot.roomFloor(record));
+            assertEquals(room.getCapacity(), snapshot.roomCapacity(record));
+            if (snapshot.roomReserverId(record) != 0) {
+                reserved++;
+            }
+        }
+        assertEquals(29, reserved);
+    }
+}
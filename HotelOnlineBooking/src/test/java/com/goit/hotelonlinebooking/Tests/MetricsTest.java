@@ -0,0 +1,95 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.controller.Controller;
+import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.LatencyHistogram;
+import com.goit.hotelonlinebooking.metrics.Metrics;
+import com.goit.hotelonlinebooking.metrics.Operation;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    private Controller controller;
+    private Metrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        controller = new Controller();
+        metrics = controller.getMetrics();
+        controller.userRegistration(new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty"));
+        controller.userRegistration(new User(2, "Petr", "Petrov", 27, "ivanov@i.ua", "0689871234", "123"));
+        controller.userRegistration(new User(3, "Ivan", "Sidorov", 32, "sidorov@i.ua", "097876", "987"));
+    }
+
+    // TC1: each controller call is counted under its operation and outcome
+    @Test
+    void test_TC1_OutcomesAreCounted() {
+        List<String> events = new ArrayList<>();
+        metrics.setListener((operation, outcome, nanos) -> events.add(operation.getTag() + ":" + outcome.getTag()));
+
+        controller.bookRoom(1, 1, 1);
+        controller.login(1);
+        controller.bookRoom(1, 1, 1);
+        controller.bookRoom(1, 1, 1);
+        controller.bookRoom(1, 1, 99);
+        controller.cancelReservation(1, 1);
+        controller.findHotelByCity("Kiev");
+        controller.findHotelByCity("Atlantis");
+
+        assertEquals(1, metrics.getCount(Operation.REGISTER, Outcome.OK));
+        assertEquals(1, metrics.getCount(Operation.REGISTER, Outcome.DUPLICATE_EMAIL));
+        assertEquals(1, metrics.getCount(Operation.REGISTER, Outcome.INVALID_PHONE));
+        assertEquals(1, metrics.getCount(Operation.BOOK, Outcome.NOT_AUTHENTICATED));
+        assertEquals(1, metrics.getCount(Operation.BOOK, Outcome.OK));
+        assertEquals(1, metrics.getCount(Operation.BOOK, Outcome.ALREADY_RESERVED));
+        assertEquals(1, metrics.getCount(Operation.BOOK, Outcome.HOTEL_NOT_FOUND));
+        assertEquals(4, metrics.getCount(Operation.BOOK));
+        assertEquals(1, metrics.getCount(Operation.CANCEL, Outcome.OK));
+        assertEquals(1, metrics.getCount(Operation.SEARCH, Outcome.NOTHING_FOUND));
+        assertEquals(4, metrics.getLatency(Operation.BOOK).getCount());
+        assertEquals("book:not_authenticated", events.get(0));
+        assertEquals("search:nothing_found", events.get(events.size() - 1));
+    }
+
+    // TC2: scrape() exposes the counters and cumulative histogram buckets; reset() clears them
+    @Test
+    void test_TC2_ScrapeAndReset() {
+        controller.login(1);
+        controller.bookRoom(1, 1, 1);
+
+        String text = metrics.scrape();
+        assertTrue(text.contains("hotel_requests_total{operation=\"book\",outcome=\"ok\"} 1\n"), text);
+        assertTrue(text.contains("hotel_request_duration_nanos_bucket{operation=\"book\",le=\"+Inf\"} 1\n"), text);
+        assertTrue(text.contains("hotel_request_duration_nanos_count{operation=\"login\"} 1\n"), text);
+        assertTrue(metrics.dump().startsWith("register"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getCount(Operation.BOOK));
+        assertFalse(metrics.scrape().contains("hotel_requests_total{"));
+    }
+
+    // TC3: percentiles are the upper bounds of power-of-two buckets
+    @Test
+    void test_TC3_HistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000_000);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(1023, histogram.getPercentileNanos(0.5));
+        assertEquals(1023, histogram.getPercentileNanos(0.9));
+        assertEquals((1 << 20) - 1, histogram.getPercentileNanos(0.99));
+        assertEquals(100_900, histogram.getMeanNanos());
+    }
+}
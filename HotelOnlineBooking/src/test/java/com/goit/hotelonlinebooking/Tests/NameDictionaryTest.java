@@ -0,0 +1,85 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.NameDictionary;
+import com.goit.hotelonlinebooking.entity.Room;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameDictionaryTest {
+
+    // TC1: equal names get one code and one String, codes decode back, and unseen names have no code
+    @Test
+    void test_TC1_EncodeDecode() {
+        NameDictionary dictionary = new NameDictionary();
+        int kiev = dictionary.encode("Kiev");
+        assertEquals(kiev, dictionary.encode(new String("Kiev")));
+        assertNotEquals(kiev, dictionary.encode("Lviv"));
+        assertSame(dictionary.decode(kiev), dictionary.decode(dictionary.find(new String("Kiev"))));
+        assertEquals(NameDictionary.NONE, dictionary.find("Odessa"));
+        assertEquals(NameDictionary.NONE, dictionary.encode(null));
+        assertNull(dictionary.decode(NameDictionary.NONE));
+
+        // codes stay put while the dictionary grows
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 2, dictionary.encode("City-" + i));
+        }
+        assertEquals("Kiev", dictionary.decode(kiev));
+        assertEquals("City-99", dictionary.decode(101));
+        assertEquals(102, dictionary.size());
+    }
+
+    // TC2: hotels keep their city as a code; exact lookups compare codes, case-insensitive ones still see every spelling
+    @Test
+    void test_TC2_FindHotelsByCity_ByCode() {
+        HotelDAO hotelDAO = new HotelDAO(false);
+        Hotel first = newHotel(1, new String("Zhytomyr"));
+        Hotel second = newHotel(2, new String("Zhytomyr"));
+        Hotel upper = newHotel(3, "ZHYTOMYR");
+        hotelDAO.save(first);
+        hotelDAO.save(second);
+        hotelDAO.save(upper);
+
+        assertEquals(first.getCityCode(), second.getCityCode());
+        assertNotEquals(first.getCityCode(), upper.getCityCode());
+        assertSame(first.getCityName(), second.getCityName());
+        assertEquals(List.of(first, second), hotelDAO.findHotelsByCity("Zhytomyr"));
+        assertEquals(List.of(upper), hotelDAO.findHotelsByCity("ZHYTOMYR"));
+        assertEquals(3, hotelDAO.findHotelsByCityIgnoreCase("zhytomyr").size());
+        assertTrue(hotelDAO.findHotelsByCity("Zhytomyr-on-Teteriv").isEmpty());
+    }
+
+    // TC3: a query for a city no hotel had yet finds the city's hotels once they arrive; no city query finds a
+    // hotel without a city
+    @Test
+    void test_TC3_RoomQuery_CityCode() {
+        RoomQuery query = new RoomQuery().inCity("Uzhhorod");
+        Hotel noCity = newHotel(4, null);
+        assertFalse(query.matches(noCity.getRooms().get(0)));
+
+        Hotel hotel = newHotel(5, new String("Uzhhorod"));
+        assertTrue(query.matches(hotel.getRooms().get(0)));
+        assertFalse(new RoomQuery().inCity("Mukachevo").matches(hotel.getRooms().get(0)));
+
+        HotelDAO hotelDAO = new HotelDAO(false);
+        hotelDAO.save(hotel);
+        hotelDAO.save(noCity);
+        assertEquals(hotel.getRooms(), hotelDAO.findRoomList(new RoomQuery().inCity("Uzhhorod")));
+        assertEquals(hotel.getRooms(), hotelDAO.findRoomList(new RoomQuery().inCity("Uzhhorod").onlyFree()
+                .cheapestFirst()));
+    }
+
+    private static Hotel newHotel(int id, String city) {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            rooms.add(new Room(id, i, 100 * i, 1, 2, null));
+        }
+        return new Hotel(id, "Hotel " + id, city, city + ", Main street", "hotel" + id + "@ukr.net", 4, rooms);
+    }
+}
@@ -0,0 +1,66 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelRoomSearchTest {
+
+    // TC1: a parallel search returns the same rooms in the same order as a sequential one, pages included
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void test_TC1_ParallelMatchesSequential(boolean columnar) {
+        HotelDAO sequential = new HotelDAO(false, columnar);
+        HotelDAO parallel = new HotelDAO(false, columnar);
+        DataGenerator generator = new DataGenerator(21).cities(6).hotels(3000).averageRoomsPerHotel(12);
+        generator.forEachHotel(sequential::save);
+        generator.forEachHotel(parallel::save);
+        sequential.setParallelThreshold(Integer.MAX_VALUE);
+        parallel.setParallelThreshold(1);
+
+        Random random = new Random(9);
+        for (int i = 0; i < 50; i++) {
+            RoomQuery query = new RoomQuery().capacityAtLeast(1 + random.nextInt(4));
+            if (random.nextBoolean()) {
+                int minPrice = 100 + random.nextInt(1000);
+                query.priceBetween(minPrice, minPrice + 500);
+            }
+            if (random.nextInt(3) == 0) {
+                query.inCity(DataGenerator.cityName(random.nextInt(6)));
+            }
+            if (random.nextBoolean()) {
+                query.page(random.nextInt(3), 5000);
+            }
+            assertEquals(sequential.findRoomList(query), parallel.findRoomList(query), query.toString());
+        }
+    }
+
+    // TC2: the result does not depend on the chunk size, down to chunks smaller than a hotel; chunks must be positive
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 100, 4096})
+    void test_TC2_ChunkSize_DoesNotChangeResult(int chunk) {
+        for (boolean columnar : new boolean[]{false, true}) {
+            HotelDAO sequential = new HotelDAO(false, columnar);
+            HotelDAO parallel = new HotelDAO(false, columnar);
+            DataGenerator generator = new DataGenerator(22).cities(4).hotels(500).averageRoomsPerHotel(12);
+            generator.forEachHotel(sequential::save);
+            generator.forEachHotel(parallel::save);
+            sequential.setParallelThreshold(Integer.MAX_VALUE);
+            parallel.setParallelThreshold(1);
+            parallel.setParallelChunk(chunk);
+
+            for (RoomQuery query : new RoomQuery[]{new RoomQuery().capacityAtLeast(2),
+                    new RoomQuery().inCity(DataGenerator.cityName(1)).priceBetween(200, 600),
+                    new RoomQuery().capacityAtLeast(1).page(1, 1000)}) {
+                assertEquals(sequential.findRoomList(query), parallel.findRoomList(query), query.toString());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new HotelDAO(false).setParallelChunk(0));
+    }
+}
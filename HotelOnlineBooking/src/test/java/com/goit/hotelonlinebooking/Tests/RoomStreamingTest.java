@@ -0,0 +1,144 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.controller.Controller;
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.RoomCursor;
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomStreamingTest {
+
+    private final User guest = new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty");
+
+    // TC1: the lazy walk returns what findRoomList() returns, with either room store
+    @Test
+    void test_TC1_Stream_MatchesList() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            HotelDAO dao = newDao(columnar);
+            assertEquals(dao.getAllRoom(), dao.streamAllRooms().collect(Collectors.toList()));
+            Random random = new Random(5);
+            for (int i = 0; i < 100; i++) {
+                RoomQuery query = new RoomQuery().capacity(1 + random.nextInt(4))
+                        .page(random.nextInt(3), 1 + random.nextInt(50));
+                if (random.nextBoolean()) {
+                    query.onlyFree();
+                }
+                if (random.nextBoolean()) {
+                    query.inCity(DataGenerator.cityName(random.nextInt(8)));
+                }
+                if (random.nextInt(4) == 0) {
+                    query.cheapestFirst();
+                }
+                assertEquals(dao.findRoomList(query), dao.streamRooms(query).collect(Collectors.toList()),
+                        query.toString());
+            }
+        }
+    }
+
+    // TC2: the callback and the stream stop where the caller stops
+    @Test
+    void test_TC2_EarlyTermination() {
+        HotelDAO dao = newDao(true);
+        RoomQuery query = new RoomQuery().onlyFree();
+        List<Room> firstFive = dao.findRoomList(new RoomQuery().onlyFree().page(0, 5));
+
+        List<Room> seen = new ArrayList<>();
+        dao.forEachRoom(query, room -> {
+            seen.add(room);
+            return seen.size() < 5;
+        });
+        assertEquals(firstFive, seen);
+        assertEquals(firstFive, dao.streamRooms(query).limit(5).collect(Collectors.toList()));
+    }
+
+    // TC3: cursor pages are the pages of RoomQuery.page() and end with the last room
+    @Test
+    void test_TC3_Cursor_PagesThroughResult() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            HotelDAO dao = newDao(columnar);
+            String city = DataGenerator.cityName(1);
+            RoomCursor cursor = dao.openCursor(new RoomQuery().inCity(city).onlyFree());
+            int total = dao.countRooms(new RoomQuery().inCity(city).onlyFree());
+            for (int page = 0; cursor.hasNext(); page++) {
+                assertEquals(dao.findRoomList(new RoomQuery().inCity(city).onlyFree().page(page, 40)),
+                        cursor.nextPage(40));
+            }
+            assertEquals(total, cursor.getPosition());
+            assertTrue(cursor.nextPage(40).isEmpty());
+        }
+    }
+
+    // TC4: the controller checks the session before it streams, walks or opens a cursor
+    @Test
+    void test_TC4_Controller_ChecksSession() {
+        Controller controller = new Controller();
+        controller.userRegistration(guest);
+        RoomQuery query = new RoomQuery().inCity("Kiev");
+        assertEquals(Outcome.NOT_AUTHENTICATED, controller.forEachRoom("no-such-session", query, room -> true));
+        assertEquals(0, controller.streamRooms("no-such-session", query).count());
+        assertNull(controller.openRoomCursor("no-such-session", query));
+
+        String session = controller.openSession(guest.getId());
+        List<Room> seen = new ArrayList<>();
+        assertEquals(Outcome.OK, controller.forEachRoom(session, query, seen::add));
+        assertEquals(controller.findRoom(session, query), seen);
+        assertEquals(seen, controller.streamRooms(session, query).collect(Collectors.toList()));
+        assertEquals(seen.subList(0, 3), controller.openRoomCursor(session, query).nextPage(3));
+        assertEquals(Outcome.NOTHING_FOUND,
+                controller.forEachRoom(session, new RoomQuery().inCity("Lviv"), room -> true));
+    }
+
+    // TC5: hotels saved and deleted between two pages neither break the cursor nor make it skip or repeat the rooms
+    // of the hotels left alone
+    @Test
+    void test_TC5_Cursor_SurvivesSaveAndDelete() {
+        for (boolean columnar : new boolean[]{false, true}) {
+            for (RoomQuery query : new RoomQuery[]{new RoomQuery(), new RoomQuery().capacityAtLeast(2)}) {
+                HotelDAO dao = newDao(columnar);
+                Hotel deleted = dao.objectById(100);
+                List<Room> untouched = dao.findRoomList(query.withoutPage());
+                untouched.removeAll(deleted.getRooms());
+
+                RoomCursor cursor = dao.openCursor(query);
+                List<Room> seen = new ArrayList<>(cursor.nextPage(40));
+                List<Room> rooms = new ArrayList<>();
+                for (int i = 1; i <= 3; i++) {
+                    rooms.add(new Room(1000, i, 100 * i, 1, 2, null));
+                }
+                dao.save(new Hotel(1000, "Hotel 1000", "Kiev", "Kiev, Main street", "hotel1000@ukr.net", 4, rooms));
+                dao.delete(deleted);
+                while (cursor.hasNext()) {
+                    seen.addAll(cursor.nextPage(40));
+                }
+
+                seen.removeAll(rooms);
+                seen.removeAll(deleted.getRooms());
+                assertEquals(untouched.size(), seen.size());
+                assertEquals(new HashSet<>(untouched), new HashSet<>(seen));
+            }
+        }
+    }
+
+    private HotelDAO newDao(boolean columnar) {
+        HotelDAO dao = new HotelDAO(false, columnar);
+        new DataGenerator(17).cities(8).hotels(200).forEachHotel(dao::save);
+        for (int id = 1; id <= 200; id += 3) {
+            Hotel hotel = dao.objectById(id);
+            hotel.reserveRoom(hotel.getRooms().get(id % hotel.getRooms().size()).getId(), guest);
+        }
+        return dao;
+    }
+}
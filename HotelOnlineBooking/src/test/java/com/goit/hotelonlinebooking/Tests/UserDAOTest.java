@@ -2,13 +2,16 @@ package com.goit.hotelonlinebooking.Tests;
 
 import com.goit.hotelonlinebooking.dao.UserDAO;
 import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Outcome;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.Before;
 import org.junit.jupiter.api.Test;
 import static org.junit.Assert.*;
 import com.goit.hotelonlinebooking.controller.Controller;
 
+import java.util.Arrays;
 import java.util.List; // you forgot this import
+import java.util.concurrent.CountDownLatch;
 class UserDAOTest {
 
     private UserDAO userDAO;
@@ -180,4 +183,59 @@ class UserDAOTest {
         System.out.println("Found users with last name 'Alghamdi':");
         result.forEach(u -> System.out.println(u.getName() + " " + u.getLastName() + " - " + u.getEmail()));
     }
-}
\ No newline at end of file
+
+    // TC14: deleted user must disappear from the email, phone and name indexes
+    @Test
+    void test_TC14_DeleteUser_ClearsIndexes() {
+        User user = userDAO.findUserByEmail("dana@i.ua").get(0);
+
+        userDAO.delete(user);
+
+        assertTrue(userDAO.findUserByEmail("dana@i.ua").isEmpty());
+        assertTrue(userDAO.findUserByPhone("0551112233").isEmpty());
+        assertEquals(1, userDAO.findUserByName("Dana").size());
+        assertTrue(userDAO.checkRegistration(new User(1, "Dana", "Sami", 21, "dana@i.ua", "0551112233", "pass1")));
+    }
+
+    // TC15: save() must not let a second user take an existing email
+    @Test
+    void test_TC15_SaveDuplicateEmail_Rejected() {
+        userDAO.save(new User(5, "Omar", "Saleh", 25, "samar@i.ua", "0551112266", "pass5"));
+
+        assertNull(userDAO.objectById(5));
+        assertEquals(1, userDAO.findUserByEmail("samar@i.ua").size());
+        assertEquals(2, userDAO.findUserByEmail("samar@i.ua").get(0).getId());
+    }
+
+    // TC16: of several threads registering the same email at once, exactly one gets OK and is stored
+    @Test
+    void test_TC16_ConcurrentRegister_OneWins() throws Exception {
+        int threads = 8;
+        Outcome[] outcomes = new Outcome[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            int n = i;
+            User user = new User(10 + n, "Omar", "Saleh", 25, "omar@i.ua", "05511123" + (10 + n), "pass");
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                outcomes[n] = userDAO.register(user);
+            });
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(1, Arrays.stream(outcomes).filter(o -> o == Outcome.OK).count());
+        assertEquals(threads - 1, Arrays.stream(outcomes).filter(o -> o == Outcome.DUPLICATE_EMAIL).count());
+        assertEquals(1, userDAO.findUserByEmail("omar@i.ua").size());
+        User sameId = new User(3, "Ivan", "Sidorov", 32, "new@i.ua", "0978763400", "987");
+        assertEquals(Outcome.DUPLICATE_ID, userDAO.register(sameId));
+    }
+}
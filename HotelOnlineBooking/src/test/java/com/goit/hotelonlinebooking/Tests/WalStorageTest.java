@@ -0,0 +1,239 @@
+package com.goit.hotelonlinebooking.Tests;
+
+import com.goit.hotelonlinebooking.controller.Controller;
+import com.goit.hotelonlinebooking.dao.Codec;
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.ReservationDAO;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import com.goit.hotelonlinebooking.dao.WalStorage;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalStorageTest {
+
+    @TempDir
+    Path directory;
+
+    private UserDAO userDAO;
+    private HotelDAO hotelDAO;
+    private ReservationDAO reservationDAO;
+
+    // TC1: saves and deletes survive a restart
+    @Test
+    void test_TC1_ReplayAfterRestart() {
+        UserDAO userDAO = openUsers(100);
+        new DataGenerator(1).users(50).forEachUser(userDAO::save);
+        userDAO.delete(userDAO.objectById(7));
+        userDAO.close();
+
+        UserDAO reopened = openUsers(100);
+        assertEquals(49, reopened.getList().size());
+        assertNull(reopened.objectById(7));
+        assertEquals(1, reopened.findUserByEmail("user8@i.ua").size());
+        reopened.close();
+    }
+
+    // TC2: snapshots replace old logs, and the contents stay the same across them
+    @Test
+    void test_TC2_SnapshotTruncatesLog() throws IOException {
+        UserDAO userDAO = openUsers(10);
+        new DataGenerator(1).users(35).forEachUser(userDAO::save);
+        userDAO.close();
+
+        long walFiles;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            walFiles = files.filter(f -> f.toString().endsWith(".wal")).count();
+        }
+        assertEquals(1, walFiles);
+        UserDAO reopened = openUsers(10);
+        assertEquals(35, reopened.getList().size());
+        reopened.close();
+    }
+
+    // TC3: a record torn by a crash is dropped, the records before it are kept and logging continues
+    @Test
+    void test_TC3_TornTailIsCutOff() throws IOException {
+        UserDAO userDAO = openUsers(100);
+        new DataGenerator(1).users(5).forEachUser(userDAO::save);
+        userDAO.close();
+        Path log = this.directory.resolve("users-0.wal");
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        UserDAO reopened = openUsers(100);
+        assertEquals(4, reopened.getList().size());
+        reopened.save(new User(100, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty"));
+        reopened.close();
+        UserDAO again = openUsers(100);
+        assertEquals(5, again.getList().size());
+        assertNotNull(again.objectById(100));
+        again.close();
+    }
+
+    // TC4: concurrent writers share fsyncs instead of paying one each
+    @Test
+    void test_TC4_GroupCommit() throws Exception {
+        WalStorage<User> storage = new WalStorage<>(this.directory, "users", Codec.users());
+        UserDAO userDAO = new UserDAO(storage);
+        int threads = 16;
+        int perThread = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread + 1;
+            futures.add(pool.submit(() -> new DataGenerator(first).firstUserId(first).users(perThread)
+                    .forEachUser(userDAO::save)));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertEquals(threads * perThread, userDAO.getList().size());
+        assertTrue(storage.getSyncCount() < threads * perThread, "fsyncs: " + storage.getSyncCount());
+        userDAO.close();
+    }
+
+    // TC5: room and dated reservations made through the Controller are there after a restart
+    @Test
+    void test_TC5_ControllerBookingsSurviveRestart() {
+        Controller controller = openController();
+        controller.userRegistration(new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty"));
+        controller.login(1);
+        assertEquals(Outcome.OK, controller.bookRoom(2, 1, 1));
+        LocalDate day = LocalDate.of(2030, 1, 10);
+        controller.bookRoom(5, 1, 1, day, day.plusDays(3));
+        closeController();
+
+        Controller restarted = openController();
+        restarted.login(1);
+        Hotel hayat = restarted.findHotelByHotelName("Hayat").get(0);
+        assertEquals(1, hayat.getRoomById(2).getUserReserved().getId());
+        assertEquals(9, hayat.getFreeRoomCount());
+        assertEquals(1, this.reservationDAO.findReservations(1, 5).size());
+        closeController();
+    }
+
+    // TC6: a booking or a cancellation logs its rooms, not the hotel, and the rooms come back as they were left
+    @Test
+    void test_TC6_RoomChangesLoggedByRoom() throws IOException {
+        Controller controller = openController();
+        controller.userRegistration(new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty"));
+        controller.login(1);
+        Path log = this.directory.resolve("hotels-0.wal");
+        long before = Files.size(log);
+        assertEquals(Outcome.OK, controller.bookRoom(3, 1, 1));
+        // header, op, hotel id, room id and user id
+        assertEquals(8 + 1 + 4 + 4 + 4, Files.size(log) - before);
+        assertEquals(Outcome.OK, controller.bookRooms(new int[]{4, 6}, 1, 1));
+        assertEquals(Outcome.OK, controller.cancelReservation(4, 1));
+        assertEquals(Outcome.OK, controller.bookRoom(1, 1, 2));
+        closeController();
+
+        Controller restarted = openController();
+        restarted.login(1);
+        Hotel hayat = restarted.findHotelByHotelName("Hayat").get(0);
+        assertEquals(1, hayat.getRoomById(3).getUserReserved().getId());
+        assertNull(hayat.getRoomById(4).getUserReserved());
+        assertEquals(1, hayat.getRoomById(6).getUserReserved().getId());
+        assertEquals(8, hayat.getFreeRoomCount());
+        assertEquals(9, restarted.findHotelByHotelName("Radisson Podil").get(0).getFreeRoomCount());
+        closeController();
+    }
+
+    // TC7: a snapshot that falls due is written in the background: the saves go on while it is being written, and
+    // close() waits for it
+    @Test
+    void test_TC7_SnapshotWrittenInBackground() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        UserDAO userDAO = new UserDAO(new WalStorage<>(this.directory, "users", Codec.users(), 10) {
+            @Override
+            public void snapshot(long generation, List<User> objects) {
+                writer.set(Thread.currentThread());
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.snapshot(generation, objects);
+            }
+        });
+        new DataGenerator(1).users(25).forEachUser(userDAO::save);
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), writer.get());
+        release.countDown();
+        userDAO.close();
+        try (Stream<Path> files = Files.list(this.directory)) {
+            assertTrue(files.anyMatch(f -> f.toString().endsWith(".snap")));
+        }
+        UserDAO reopened = openUsers(10);
+        assertEquals(25, reopened.getList().size());
+        reopened.close();
+    }
+
+    // TC8: a torn record whose length claims more than the file holds is cut off like any torn tail, without
+    // allocating what it claims
+    @Test
+    void test_TC8_OversizedLengthIsCutOff() throws IOException {
+        UserDAO userDAO = openUsers(100);
+        new DataGenerator(1).users(5).forEachUser(userDAO::save);
+        userDAO.close();
+        Path log = this.directory.resolve("users-0.wal");
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(8).putInt(Integer.MAX_VALUE).putInt(0).flip());
+        }
+
+        UserDAO reopened = openUsers(100);
+        assertEquals(5, reopened.getList().size());
+        reopened.save(new User(100, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty"));
+        reopened.close();
+        UserDAO again = openUsers(100);
+        assertEquals(6, again.getList().size());
+        again.close();
+    }
+
+    private UserDAO openUsers(int snapshotInterval) {
+        return new UserDAO(new WalStorage<>(this.directory, "users", Codec.users(), snapshotInterval));
+    }
+
+    private Controller openController() {
+        this.userDAO = new UserDAO(new WalStorage<>(this.directory, "users", Codec.users()));
+        this.hotelDAO = new HotelDAO(new WalStorage<>(this.directory, "hotels", Codec.hotels(this.userDAO::objectById)), true);
+        this.reservationDAO = new ReservationDAO(new WalStorage<>(this.directory, "reservations",
+                Codec.reservations(this.userDAO::objectById)));
+        return new Controller(this.hotelDAO, this.userDAO, this.reservationDAO);
+    }
+
+    private void closeController() {
+        this.reservationDAO.close();
+        this.hotelDAO.close();
+        this.userDAO.close();
+    }
+}
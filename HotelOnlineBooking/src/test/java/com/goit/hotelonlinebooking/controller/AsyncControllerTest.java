@@ -0,0 +1,155 @@
+package com.goit.hotelonlinebooking.controller;
+
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncControllerTest {
+
+    private static final int USERS = 16;
+
+    private Controller controller;
+    private AsyncController async;
+    private String[] sessions;
+    // while set, the writers wait for it before every single-room booking
+    private volatile CountDownLatch writerGate;
+
+    @BeforeEach
+    void setUp() {
+        controller = new Controller() {
+            @Override
+            public Outcome tryBookRoom(String session, int roomId, int hotelId) {
+                CountDownLatch gate = writerGate;
+                if (gate != null) {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.tryBookRoom(session, roomId, hotelId);
+            }
+        };
+        sessions = new String[USERS + 1];
+        for (int i = 1; i <= USERS; i++) {
+            controller.userRegistration(new User(i, "User" + i, "Async", 30,
+                    "user" + i + "@i.ua", String.format("05%08d", i), "pass"));
+            sessions[i] = controller.openSession(i);
+        }
+        async = new AsyncController(controller, 3, 4096, 1, TimeUnit.SECONDS, ForkJoinPool.commonPool());
+    }
+
+    @AfterEach
+    void tearDown() {
+        async.close();
+    }
+
+    // TC1: all users ask for every room at once; each room gets exactly one winner
+    @Test
+    void test_TC1_BookRoom_OneWinnerPerRoom() throws Exception {
+        List<Hotel> hotels = controller.getAllHotel();
+        List<CompletableFuture<Outcome>> futures = new ArrayList<>();
+        for (int userId = 1; userId <= USERS; userId++) {
+            for (Hotel hotel : hotels) {
+                for (Room room : hotel.getRooms()) {
+                    futures.add(async.bookRoom(sessions[userId], room.getId(), hotel.getId()));
+                }
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        long rooms = hotels.stream().mapToLong(h -> h.getRooms().size()).sum();
+        assertEquals(rooms, futures.stream().filter(f -> f.join() == Outcome.OK).count());
+        assertTrue(async.findRoom(sessions[1], new RoomQuery().onlyFree()).get().isEmpty());
+
+        Hotel hotel = hotels.get(0);
+        int[] roomIds = hotel.getRooms().stream().mapToInt(Room::getId).toArray();
+        assertEquals(Outcome.OK, async.cancelReservations(sessions[1], roomIds, hotel.getId()).get());
+        assertEquals(roomIds.length, async.getFreeRoomsByHotel(sessions[1], hotel.getHotelName()).get().size());
+    }
+
+    // TC2: with the writer stuck in a write, writes beyond the queue capacity are rejected
+    @Test
+    void test_TC2_FullQueue_RejectsWrites() throws Exception {
+        async.close();
+        async = new AsyncController(controller, 1, 2, 0, TimeUnit.MILLISECONDS, ForkJoinPool.commonPool());
+        Hotel hotel = controller.getAllHotel().get(0);
+        List<CompletableFuture<Outcome>> futures = new ArrayList<>();
+        writerGate = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 4; i++) {
+                futures.add(async.bookRoom(sessions[1], hotel.getRooms().get(i).getId(), hotel.getId()));
+            }
+        } finally {
+            writerGate.countDown();
+            writerGate = null;
+        }
+
+        int accepted = 0;
+        for (CompletableFuture<Outcome> future : futures) {
+            try {
+                assertEquals(Outcome.OK, future.get(10, TimeUnit.SECONDS));
+                accepted++;
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+        }
+        assertTrue(accepted >= 2 && accepted <= 3, "accepted " + accepted);
+        assertEquals(hotel.getRooms().size() - accepted, hotel.getFreeRoomCount());
+    }
+
+    // TC3: close() on an interrupted thread still stops the writers after the queued writes, and keeps the interrupt
+    @Test
+    void test_TC3_InterruptedClose_KeepsInterrupt() throws Exception {
+        Hotel hotel = controller.getAllHotel().get(0);
+        CompletableFuture<Outcome> queued = async.bookRoom(sessions[1], hotel.getRooms().get(0).getId(), hotel.getId());
+        Thread.currentThread().interrupt();
+        async.close();
+        assertTrue(Thread.interrupted());
+
+        assertEquals(Outcome.OK, queued.get(10, TimeUnit.SECONDS));
+        ExecutionException rejected = assertThrows(ExecutionException.class, () ->
+                async.bookRoom(sessions[2], hotel.getRooms().get(1).getId(), hotel.getId()).get(10, TimeUnit.SECONDS));
+        assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+    }
+
+    // TC4: writers never take the hotel lock: bookings and cancellations go through while another thread holds it
+    @Test
+    void test_TC4_Writes_DoNotTakeHotelLock() throws Exception {
+        Hotel hotel = controller.getAllHotel().get(0);
+        int first = hotel.getRooms().get(0).getId();
+        int[] others = {hotel.getRooms().get(1).getId(), hotel.getRooms().get(2).getId()};
+        hotel.getLock().lock();
+        try {
+            assertEquals(Outcome.OK, async.bookRoom(sessions[1], first, hotel.getId()).get(10, TimeUnit.SECONDS));
+            assertEquals(Outcome.ALREADY_RESERVED,
+                    async.bookRoom(sessions[2], first, hotel.getId()).get(10, TimeUnit.SECONDS));
+            assertEquals(Outcome.OK, async.bookRooms(sessions[2], others, hotel.getId()).get(10, TimeUnit.SECONDS));
+            assertEquals(Outcome.ALREADY_RESERVED, async.bookRooms(sessions[3], new int[]{others[1], first},
+                    hotel.getId()).get(10, TimeUnit.SECONDS));
+            assertEquals(Outcome.OK, async.cancelReservation(sessions[1], first, hotel.getId())
+                    .get(10, TimeUnit.SECONDS));
+            assertEquals(Outcome.OK, async.cancelReservations(sessions[2], others, hotel.getId())
+                    .get(10, TimeUnit.SECONDS));
+        } finally {
+            hotel.getLock().unlock();
+        }
+        assertEquals(hotel.getRooms().size(), hotel.getFreeRoomCount());
+    }
+}
@@ -0,0 +1,85 @@
+package com.goit.hotelonlinebooking.controller;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingServiceTest {
+
+    private static final int USERS = 200;
+
+    private BookingService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new BookingService(new Controller());
+        List<CompletableFuture<Outcome>> registrations = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            registrations.add(service.userRegistration(new User(i, "User" + i, "Service", 30,
+                    "user" + i + "@i.ua", String.format("05%08d", i), "pass")));
+        }
+        CompletableFuture.allOf(registrations.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    // TC1: thousands of simultaneous requests, one task each; every room is booked exactly once
+    @Test
+    void test_TC1_ConcurrentRequests_OneWinnerPerRoom() throws Exception {
+        String[] sessions = new String[USERS + 1];
+        for (int i = 1; i <= USERS; i++) {
+            sessions[i] = service.openSession(i).get();
+        }
+        List<Hotel> hotels = service.getController().getAllHotel();
+        List<CompletableFuture<Outcome>> bookings = new ArrayList<>();
+        for (int userId = 1; userId <= USERS; userId++) {
+            for (Hotel hotel : hotels) {
+                Room room = hotel.getRooms().get(userId % hotel.getRooms().size());
+                bookings.add(service.bookRoom(sessions[userId], room.getId(), hotel.getId()));
+            }
+        }
+        CompletableFuture.allOf(bookings.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        long rooms = hotels.stream().mapToLong(h -> Math.min(USERS, h.getRooms().size())).sum();
+        assertEquals(rooms, bookings.stream().filter(f -> f.join() == Outcome.OK).count());
+        Hotel hotel = hotels.get(0);
+        assertTrue(service.getFreeRoomsByHotel(sessions[1], hotel.getHotelName()).get().isEmpty());
+        Room first = hotel.getRooms().get(0);
+        assertEquals(Outcome.OK, service.cancelReservation(sessions[1], first.getId(), hotel.getId()).get());
+        assertEquals(1, service.getFreeRoomsByHotel(sessions[1], hotel.getHotelName()).get().size());
+    }
+
+    // TC2: a request submitted to the service runs on a virtual thread
+    @Test
+    void test_TC2_Requests_RunOnVirtualThreads() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        BookingService observed = new BookingService(new Controller() {
+            @Override
+            public String openSession(int userId) {
+                virtual.set(Thread.currentThread().isVirtual());
+                return super.openSession(userId);
+            }
+        });
+        try {
+            observed.openSession(1).get(10, TimeUnit.SECONDS);
+            assertTrue(virtual.get());
+        } finally {
+            observed.close();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.goit.hotelonlinebooking.controller;
+
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.ReservationDAO;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControllerConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int ROUNDS = 50;
+
+    private Controller controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = newController(false);
+    }
+
+    // every thread races for every room of every hotel; each room must end up with exactly one winner
+    @Test
+    void test_ConcurrentBookRoom_NoDoubleBooking() throws Exception {
+        raceForEveryRoom();
+    }
+
+    // the same race decided by compare-and-set alone, without the hotel lock
+    @Test
+    void test_OptimisticBookRoom_NoDoubleBooking() throws Exception {
+        controller = newController(true);
+        raceForEveryRoom();
+    }
+
+    // random bookings and cancellations on a few rooms while others read; afterwards the free-room bitmap of every
+    // hotel agrees with its rooms
+    @Test
+    void test_OptimisticChurn_FreeRoomsMatchRooms() throws Exception {
+        controller = newController(true);
+        List<Hotel> hotels = controller.getAllHotel().subList(0, 2);
+        String[] sessions = new String[THREADS + 1];
+        for (int i = 1; i <= THREADS; i++) {
+            sessions[i] = controller.openSession(i);
+        }
+        runConcurrently(userId -> {
+            SplittableRandom random = new SplittableRandom(userId);
+            for (int i = 0; i < 2_000; i++) {
+                Hotel hotel = hotels.get(random.nextInt(hotels.size()));
+                Room room = hotel.getRooms().get(random.nextInt(3));
+                if (userId % 4 == 0) {
+                    for (Room free : controller.getFreeRoomsByHotel(sessions[userId], hotel.getHotelName())) {
+                        assertNotNull(free);
+                    }
+                } else if (random.nextBoolean()) {
+                    controller.bookRoom(sessions[userId], room.getId(), hotel.getId());
+                } else {
+                    controller.cancelReservation(sessions[userId], room.getId(), hotel.getId());
+                }
+            }
+        });
+
+        for (Hotel hotel : hotels) {
+            long free = hotel.getRooms().stream().filter(room -> room.getUserReserved() == null).count();
+            assertEquals(free, hotel.getFreeRoomCount());
+            assertEquals(free, hotel.getFreeRooms().size());
+        }
+    }
+
+    private Controller newController(boolean optimisticBooking) {
+        Controller created = new Controller(new HotelDAO(), new UserDAO(), new ReservationDAO(), optimisticBooking);
+        for (int i = 1; i <= THREADS; i++) {
+            created.userRegistration(new User(i, "User" + i, "Stress", 30,
+                    "user" + i + "@i.ua", String.format("05%08d", i), "pass"));
+        }
+        created.login(1);
+        return created;
+    }
+
+    private void raceForEveryRoom() throws Exception {
+        List<Hotel> hotels = controller.getAllHotel();
+        String[] sessions = new String[THREADS + 1];
+        for (int i = 1; i <= THREADS; i++) {
+            sessions[i] = controller.openSession(i);
+        }
+        int roomsPerHotel = hotels.get(0).getRooms().size();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            AtomicIntegerArray winners = new AtomicIntegerArray(hotels.size() * roomsPerHotel);
+            runConcurrently(userId -> {
+                for (int h = 0; h < hotels.size(); h++) {
+                    Hotel hotel = hotels.get(h);
+                    for (int r = 0; r < roomsPerHotel; r++) {
+                        if (controller.bookRoom(sessions[userId], hotel.getRooms().get(r).getId(), hotel.getId()) == Outcome.OK) {
+                            winners.incrementAndGet(h * roomsPerHotel + r);
+                        }
+                    }
+                }
+            });
+
+            for (int i = 0; i < winners.length(); i++) {
+                assertEquals(1, winners.get(i), "room slot " + i + " booked by " + winners.get(i) + " users");
+            }
+            for (Hotel hotel : hotels) {
+                assertEquals(0, hotel.getFreeRoomCount());
+                assertTrue(controller.getFreeRoomsByHotel(hotel.getHotelName()).isEmpty());
+                for (Room room : hotel.getRooms()) {
+                    controller.cancelReservation(room.getId(), hotel.getId());
+                }
+                assertEquals(roomsPerHotel, hotel.getFreeRoomCount());
+            }
+        }
+    }
+
+    private void runConcurrently(UserTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i <= THREADS; i++) {
+            int userId = i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run(userId);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private interface UserTask {
+        void run(int userId);
+    }
+}
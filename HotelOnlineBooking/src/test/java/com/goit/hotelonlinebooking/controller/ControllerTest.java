@@ -1,21 +1,30 @@
 package com.goit.hotelonlinebooking.controller;
 
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.ReservationDAO;
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.dao.UserDAO;
 import com.goit.hotelonlinebooking.entity.Hotel;
 import com.goit.hotelonlinebooking.entity.Room;
 import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Outcome;
 
-import org.junit.Before;
-import org.junit.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ControllerTest {
 
     private Controller controller;
 
-    @Before
+    @BeforeEach
     public void setUp() {
         controller = new Controller();
 
@@ -47,7 +56,7 @@ public class ControllerTest {
         for (Hotel hotel : controller.getHotelList()) {
             if (hotel.getHotelName().equals("Hayat")) {
                 for (Room room : hotel.getRooms()) {
-                    room.setUserReserved(mockUser);
+                    hotel.reserveRoom(room.getId(), mockUser);
                 }
             }
         }
@@ -169,11 +178,11 @@ public class ControllerTest {
                 .filter(r -> r.getId() == 2)
                 .findFirst()
                 .orElse(null);
-        assertNotNull("Room with ID 2 should exist in Hayat", targetRoom);
-        assertNull("Room 2 should not already be reserved", targetRoom.getUserReserved());
+        assertNotNull(targetRoom, "Room with ID 2 should exist in Hayat");
+        assertNull(targetRoom.getUserReserved(), "Room 2 should not already be reserved");
         controller.bookRoom(2, 1, 1); // roomId=2, userId=1, hotelId=1
-        assertNotNull("Room 2 should now be reserved", targetRoom.getUserReserved());
-        assertEquals("Room 2 should be reserved by userId 1", 1, targetRoom.getUserReserved().getId());
+        assertNotNull(targetRoom.getUserReserved(), "Room 2 should now be reserved");
+        assertEquals(1, targetRoom.getUserReserved().getId(), "Room 2 should be reserved by userId 1");
     }
 
 
@@ -196,7 +205,8 @@ public class ControllerTest {
 
         controller.bookRoom(2, 1, 1);
 
-    
+    }
+
     @Test
     public void test_TC14_BookRoom_InvalidRoomId_NoCrash() {
         Controller controller = new Controller();
@@ -249,8 +259,237 @@ public class ControllerTest {
         assertTrue(result.isEmpty());  // login failed, flagLogin = false
     }
 
+    // TC19: city prefix lookup is case-insensitive and served by the city index
+    @Test
+    public void test_TC19_FindHotelByCityPrefix() {
+        controller.login(1);
 
+        List<Hotel> result = controller.findHotelByCityPrefix("kie");
 
-}
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(h -> h.getCityName().equals("Kiev")));
+        assertEquals(2, controller.findHotelByHotelNamePrefix("radisson").size());
+    }
+
+    // TC20: booking and cancelling flip the hotel's free-room count
+    @Test
+    public void test_TC20_FreeRoomCount_FollowsBookAndCancel() {
+        controller.login(1);
+        Hotel hayat = controller.findHotelByHotelName("Hayat").get(0);
+        int freeBefore = hayat.getFreeRoomCount();
+
+        controller.bookRoom(3, 1, 1);
+        assertEquals(freeBefore - 1, hayat.getFreeRoomCount());
+        assertEquals(freeBefore - 1, controller.getFreeRoomsByHotel("Hayat").size());
 
+        controller.cancelReservation(3, 1);
+        assertEquals(freeBefore, hayat.getFreeRoomCount());
+    }
 
+    // TC21: findRoom() parameters are combined with AND
+    @Test
+    public void test_TC21_FindRoom_IntersectsParameters() {
+        controller.login(1);
+        Map<String, String> params = new HashMap<>();
+        params.put("floor", "2");
+        params.put("capacity", "2");
+
+        List<Room> result = controller.findRoom(params);
+
+        long expected = controller.getHotelList().stream()
+                .flatMap(h -> h.getRooms().stream())
+                .filter(r -> r.getFloor() == 2 && r.getCapacity() == 2)
+                .count();
+        assertEquals(expected, result.size());
+        assertTrue(result.stream().allMatch(r -> r.getFloor() == 2 && r.getCapacity() == 2));
+    }
+
+    // TC22: RoomQuery scoped to a hotel pages through its rooms without overlap
+    @Test
+    public void test_TC22_FindRoom_HotelScopeAndPaging() {
+        controller.login(1);
+
+        List<Room> firstPage = controller.findRoom(new RoomQuery().inHotel("Hayat").page(0, 4));
+        List<Room> secondPage = controller.findRoom(new RoomQuery().inHotel("Hayat").page(1, 4));
+
+        assertEquals(4, firstPage.size());
+        assertEquals(4, secondPage.size());
+        assertTrue(firstPage.stream().noneMatch(secondPage::contains));
+        assertTrue(firstPage.stream().allMatch(r -> r.getHotel().getHotelName().equals("Hayat")));
+    }
+
+    // TC23: dated bookings of one room may touch but not overlap
+    @Test
+    public void test_TC23_BookRoomByDates_RejectsOverlap() {
+        controller.login(1);
+        LocalDate day = LocalDate.of(2025, 6, 1);
+        int freeBefore = controller.getFreeRoomsByHotel("Hayat", day, day.plusDays(3)).size();
+
+        controller.bookRoom(5, 1, 1, day, day.plusDays(3));
+        controller.bookRoom(5, 2, 1, day.plusDays(2), day.plusDays(4));
+        controller.bookRoom(5, 3, 1, day.plusDays(3), day.plusDays(5));
+
+        assertEquals(freeBefore - 1, controller.getFreeRoomsByHotel("Hayat", day.plusDays(1), day.plusDays(2)).size());
+        assertEquals(freeBefore - 1, controller.getFreeRoomsByHotel("Hayat", day.plusDays(4), day.plusDays(6)).size());
+        assertEquals(freeBefore, controller.getFreeRoomsByHotel("Hayat", day.plusDays(5), day.plusDays(7)).size());
+
+        controller.cancelReservation(5, 1, day);
+        assertEquals(freeBefore, controller.getFreeRoomsByHotel("Hayat", day, day.plusDays(3)).size());
+    }
+
+    // TC24: a batch booking with one taken room reserves nothing
+    @Test
+    public void test_TC24_BookRooms_AllOrNothing() {
+        controller.login(1);
+        int freeBefore = controller.getFreeRoomsByHotel("Hayat").size();
+
+        assertEquals(Outcome.OK, controller.bookRoom(3, 2, 1));
+        assertEquals(Outcome.ALREADY_RESERVED, controller.bookRooms(new int[]{1, 2, 3, 4}, 1, 1));
+        assertEquals(freeBefore - 1, controller.getFreeRoomsByHotel("Hayat").size());
+        assertEquals(Outcome.DUPLICATE_ROOM, controller.bookRooms(new int[]{1, 2, 2}, 1, 1));
+        assertEquals(Outcome.ROOM_NOT_FOUND, controller.bookRooms(new int[]{1, 99}, 1, 1));
+        assertEquals(freeBefore - 1, controller.getFreeRoomsByHotel("Hayat").size());
+
+        assertEquals(Outcome.OK, controller.bookRooms(new int[]{1, 2, 4}, 1, 1));
+        assertEquals(freeBefore - 4, controller.getFreeRoomsByHotel("Hayat").size());
+        Hotel hayat = controller.findHotelByHotelName("Hayat").get(0);
+        assertEquals(1, hayat.getRoomById(4).getUserReserved().getId());
+    }
+
+    // TC25: a batch cancellation frees all rooms or, if one of them is not reserved, none
+    @Test
+    public void test_TC25_CancelReservations_AllOrNothing() {
+        controller.login(1);
+        int freeBefore = controller.getFreeRoomsByHotel("Hayat").size();
+        assertEquals(Outcome.OK, controller.bookRooms(new int[]{6, 7, 8}, 1, 1));
+
+        assertEquals(Outcome.NOT_RESERVED, controller.cancelReservations(new int[]{6, 7, 9}, 1));
+        assertEquals(freeBefore - 3, controller.getFreeRoomsByHotel("Hayat").size());
+
+        assertEquals(Outcome.OK, controller.cancelReservations(new int[]{8, 6, 7}, 1));
+        assertEquals(freeBefore, controller.getFreeRoomsByHotel("Hayat").size());
+    }
+
+    // TC26: every failure comes back as its own outcome; searches fill the caller's list
+    @Test
+    public void test_TC26_TypedOutcomes() {
+        List<Hotel> hotels = new ArrayList<>();
+        assertEquals(Outcome.NOT_AUTHENTICATED, controller.findHotelByCity(null, "Kiev", hotels));
+        assertEquals(Outcome.NOT_AUTHENTICATED, controller.bookRoom(1, 1, 1));
+        assertEquals(Outcome.USER_NOT_FOUND, controller.login(42));
+        assertEquals(Outcome.DUPLICATE_EMAIL,
+                controller.userRegistration(new User(4, "Oleg", "Olegov", 40, "ivanov@i.ua", "0501112233", "pw")));
+        assertEquals(Outcome.OK, controller.login(1));
+        String session = controller.openSession(1);
+
+        assertEquals(Outcome.OK, controller.findHotelByCity(session, "Kiev", hotels));
+        assertEquals(2, hotels.size());
+        assertEquals(Outcome.NOTHING_FOUND, controller.findHotelByCity(session, "Atlantis", hotels));
+        assertEquals(2, hotels.size());
+        List<Room> rooms = new ArrayList<>();
+        assertEquals(Outcome.HOTEL_NOT_FOUND, controller.getFreeRoomsByHotel(session, "Hilton", rooms));
+        assertEquals(Outcome.OK, controller.getFreeRoomsByHotel(session, "Hayat", rooms));
+        assertEquals(10, rooms.size());
+
+        LocalDate day = LocalDate.of(2025, 6, 1);
+        assertEquals(Outcome.INVALID_DATES, controller.bookRoom(5, 1, 1, day, day));
+        assertEquals(Outcome.OK, controller.bookRoom(5, 1, 1, day, day.plusDays(2)));
+        assertEquals(Outcome.DATES_TAKEN, controller.bookRoom(5, 2, 1, day.plusDays(1), day.plusDays(3)));
+        assertEquals(Outcome.RESERVATION_NOT_FOUND, controller.cancelReservation(5, 1, day.plusDays(1)));
+        assertEquals(Outcome.NOT_RESERVED, controller.cancelReservation(5, 1));
+    }
+
+    // TC27: a booking without dates is refused while the room has a dated reservation that has not ended
+    @Test
+    public void test_TC27_BookWithoutDates_RespectsSchedule() {
+        controller.login(1);
+        LocalDate future = LocalDate.now().plusDays(10);
+        LocalDate past = LocalDate.now().minusDays(10);
+        Hotel hayat = controller.findHotelByHotelName("Hayat").get(0);
+
+        assertEquals(Outcome.OK, controller.bookRoom(5, 1, 1, future, future.plusDays(3)));
+        assertEquals(Outcome.RESERVED_WITH_DATES, controller.bookRoom(5, 2, 1));
+        assertNull(hayat.getRoomById(5).getUserReserved());
+        assertEquals(Outcome.RESERVED_WITH_DATES, controller.bookRooms(new int[]{4, 5}, 2, 1));
+        assertNull(hayat.getRoomById(4).getUserReserved());
+
+        assertEquals(Outcome.OK, controller.bookRoom(6, 1, 1, past, past.plusDays(3)));
+        assertEquals(Outcome.OK, controller.bookRoom(6, 2, 1));
+        assertEquals(Outcome.RESERVED_WITHOUT_DATES, controller.bookRoom(6, 1, 1, future, future.plusDays(1)));
+
+        controller.cancelReservation(5, 1, future);
+        assertEquals(Outcome.OK, controller.bookRoom(5, 2, 1));
+    }
+
+    // TC28: the optimistic booking applies the same rule
+    @Test
+    public void test_TC28_OptimisticBookWithoutDates_RespectsSchedule() {
+        Controller optimistic = new Controller(new HotelDAO(), new UserDAO(), new ReservationDAO(), true);
+        optimistic.userRegistration(new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty"));
+        optimistic.login(1);
+        LocalDate future = LocalDate.now().plusDays(10);
+
+        assertEquals(Outcome.OK, optimistic.bookRoom(5, 1, 1, future, future.plusDays(3)));
+        assertEquals(Outcome.RESERVED_WITH_DATES, optimistic.bookRoom(5, 1, 1));
+        assertEquals(10, optimistic.getFreeRoomsByHotel("Hayat").size());
+        assertEquals(Outcome.OK, optimistic.bookRoom(3, 1, 1));
+        assertEquals(Outcome.RESERVED_WITHOUT_DATES, optimistic.bookRoom(3, 1, 1, future, future.plusDays(1)));
+    }
+
+    // TC29: missing dates are an outcome, not an exception
+    @Test
+    public void test_TC29_MissingDates_Rejected() {
+        controller.login(1);
+        String session = controller.openSession(1);
+        LocalDate day = LocalDate.now().plusDays(10);
+
+        assertEquals(Outcome.INVALID_DATES, controller.bookRoom(5, 1, 1, null, day));
+        assertEquals(Outcome.INVALID_DATES, controller.bookRoom(5, 1, 1, day, null));
+        assertEquals(Outcome.INVALID_DATES, controller.getFreeRoomsByHotel(session, "Hayat", day, null,
+                new ArrayList<>()));
+        assertEquals(Outcome.RESERVATION_NOT_FOUND, controller.cancelReservation(5, 1, null));
+    }
+
+    // TC30: a page past Integer.MAX_VALUE rooms is empty instead of overflowing to an earlier page; negative page
+    // numbers and sizes are rejected
+    @Test
+    public void test_TC30_FindRoom_PageBeyondIntRange() {
+        controller.login(1);
+
+        RoomQuery farPage = new RoomQuery().inHotel("Hayat").page(Integer.MAX_VALUE / 2, 4);
+        assertEquals(Integer.MAX_VALUE, farPage.getOffset());
+        assertTrue(controller.findRoom(farPage).isEmpty());
+        assertTrue(controller.findRoom(new RoomQuery().page(Integer.MAX_VALUE, Integer.MAX_VALUE)).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new RoomQuery().page(-1, 4));
+        assertThrows(IllegalArgumentException.class, () -> new RoomQuery().page(0, -4));
+    }
+
+    // TC31: the schedules of rooms with the same id in different hotels stay apart, across enough rooms to grow the
+    // schedule table twice
+    @Test
+    public void test_TC31_DatedFreeRooms_PerHotelAndRoom() {
+        controller.login(1);
+        LocalDate day = LocalDate.of(2025, 6, 1);
+        List<Hotel> hotels = controller.getAllHotel();
+        for (Hotel hotel : hotels) {
+            for (Room room : hotel.getRooms()) {
+                if (room.getId() % 2 == hotel.getId() % 2) {
+                    assertEquals(Outcome.OK, controller.bookRoom(room.getId(), 1, hotel.getId(), day, day.plusDays(2)));
+                }
+            }
+        }
+
+        for (Hotel hotel : hotels) {
+            List<Room> free = controller.getFreeRoomsByHotel(hotel.getHotelName(), day.plusDays(1), day.plusDays(3));
+            List<Room> expected = new ArrayList<>();
+            for (Room room : hotel.getFreeRooms()) {
+                if (room.getId() % 2 != hotel.getId() % 2) {
+                    expected.add(room);
+                }
+            }
+            assertEquals(expected, free, hotel.getHotelName());
+            assertEquals(hotel.getFreeRoomCount(),
+                    controller.getFreeRoomsByHotel(hotel.getHotelName(), day.plusDays(2), day.plusDays(3)).size());
+        }
+    }
+}
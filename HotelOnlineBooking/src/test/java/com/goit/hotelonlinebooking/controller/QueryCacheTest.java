@@ -0,0 +1,124 @@
+package com.goit.hotelonlinebooking.controller;
+
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCacheTest {
+
+    @Test
+    void test_LeastRecentlyUsed_IsEvicted() {
+        QueryCache<String, String> cache = new QueryCache<>(2);
+
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("a", key -> fail("a is cached"));
+        cache.get("c", String::toUpperCase);
+
+        assertEquals("A", cache.get("a", key -> fail("a was used last")));
+        assertEquals("bb", cache.get("b", key -> key + key));
+        assertEquals(2, cache.getEvictionCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+        assertEquals(1.0 / 3, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void test_ResultLoadedDuringInvalidation_IsNotStored() {
+        QueryCache<String, String> cache = new QueryCache<>(10);
+
+        assertEquals("old", cache.get("k", key -> {
+            cache.invalidate(key);
+            return "old";
+        }));
+
+        assertEquals("new", cache.get("k", key -> "new"));
+        assertEquals("new", cache.get("k", key -> fail("new is cached")));
+    }
+
+    // nothing is cached for a null key, and invalidating one is harmless
+    @Test
+    void test_NullKey_IsNotCached() {
+        QueryCache<String, String> cache = new QueryCache<>(10);
+
+        assertEquals("none", cache.get(null, key -> "none"));
+        assertEquals("other", cache.get(null, key -> "other"));
+        cache.invalidate(null);
+        assertEquals(0, cache.size());
+    }
+
+    // hits, misses and evictions from many threads keep the cache within its capacity and every value right
+    @Test
+    void test_ConcurrentLookups_StayBounded() throws Exception {
+        QueryCache<Integer, String> cache = new QueryCache<>(16);
+        int threads = 8;
+        int lookups = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < lookups; i++) {
+                    // a hot set of 8 keys takes most lookups, 200 cold keys the rest
+                    int key = random.nextInt(4) == 0 ? 8 + random.nextInt(200) : random.nextInt(8);
+                    assertEquals("v" + key, cache.get(key, k -> "v" + k));
+                    if (random.nextInt(100) == 0) {
+                        cache.invalidate(key);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertTrue(cache.size() <= 16, "size " + cache.size());
+        assertEquals((long) threads * lookups, cache.getHitCount() + cache.getMissCount());
+        assertTrue(cache.getHitRatio() > 0.5, cache.toString());
+    }
+
+    // a booking drops the free rooms of its hotel only; a saved hotel drops the hotels of its city only
+    @Test
+    void test_Controller_InvalidatesPrecisely() {
+        HotelDAO hotelDAO = new HotelDAO();
+        Controller controller = new Controller(hotelDAO, new UserDAO());
+        controller.userRegistration(new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty"));
+        String session = controller.openSession(1);
+        QueryCache<String, List<Room>> freeRooms = controller.getFreeRoomsByHotelCache();
+        QueryCache<String, List<Hotel>> hotels = controller.getHotelsByCityCache();
+        controller.getFreeRoomsByHotel(session, "Hayat");
+        controller.getFreeRoomsByHotel(session, "Gendel");
+        controller.findHotelByCity(session, "Kiev");
+        controller.findHotelByCity(session, "Dnepr");
+
+        Hotel hayat = controller.findHotelByHotelName(session, "Hayat").get(0);
+        assertEquals(Outcome.OK, controller.bookRoom(session, hayat.getRooms().get(0).getId(), hayat.getId()));
+        hotelDAO.save(new Hotel(7, "Premier Palace", "Kiev", "Kiev, Khreshchatyk",
+                "premier@ukr.net", 5, new ArrayList<>()));
+
+        assertEquals(2, freeRooms.size() + hotels.size());
+        assertEquals(9, controller.getFreeRoomsByHotel(session, "Hayat").size());
+        assertEquals(10, controller.getFreeRoomsByHotel(session, "Gendel").size());
+        assertEquals(3, controller.findHotelByCity(session, "Kiev").size());
+        assertEquals(2, controller.findHotelByCity(session, "Dnepr").size());
+        assertEquals(1, freeRooms.getInvalidationCount());
+        assertEquals(1, hotels.getInvalidationCount());
+        assertEquals(2, freeRooms.getHitCount() + hotels.getHitCount());
+    }
+}
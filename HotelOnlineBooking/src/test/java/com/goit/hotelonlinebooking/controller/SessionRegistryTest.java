@@ -0,0 +1,116 @@
+package com.goit.hotelonlinebooking.controller;
+
+import com.goit.hotelonlinebooking.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRegistryTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final User ivan = new User(1, "Ivan", "Ivanov", 24, "ivanov@i.ua", "0679656343", "qwerty");
+
+    @Test
+    void test_Validate_ReturnsSessionUser() {
+        SessionRegistry registry = new SessionRegistry(10, TimeUnit.SECONDS, 10, clock::get);
+
+        String session = registry.open(ivan);
+
+        assertSame(ivan, registry.validate(session));
+        assertNull(registry.validate("no-such-session"));
+        assertNull(registry.validate(null));
+    }
+
+    @Test
+    void test_IdleSession_IsEvicted() {
+        SessionRegistry registry = new SessionRegistry(10, TimeUnit.SECONDS, 10, clock::get);
+        String active = registry.open(ivan);
+        String idle = registry.open(ivan);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        registry.validate(active);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+
+        assertEquals(1, registry.evictIdle());
+        assertSame(ivan, registry.validate(active));
+        assertNull(registry.validate(idle));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void test_FullRegistry_DropsOldestSession() {
+        SessionRegistry registry = new SessionRegistry(10, TimeUnit.SECONDS, 2, clock::get);
+        String first = registry.open(ivan);
+        String second = registry.open(ivan);
+
+        String third = registry.open(ivan);
+
+        assertEquals(2, registry.size());
+        assertNull(registry.validate(first));
+        assertNotNull(registry.validate(second));
+        assertNotNull(registry.validate(third));
+    }
+
+    @Test
+    void test_FullRegistry_DropsLeastRecentlyUsed() {
+        SessionRegistry registry = new SessionRegistry(10, TimeUnit.SECONDS, 2, clock::get);
+        String first = registry.open(ivan);
+        String second = registry.open(ivan);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        registry.validate(first);
+
+        String third = registry.open(ivan);
+
+        assertNotNull(registry.validate(first));
+        assertNull(registry.validate(second));
+        assertNotNull(registry.validate(third));
+    }
+
+    @Test
+    void test_ConcurrentOpens_NeverPassTheCap() throws Exception {
+        int maxSessions = 16;
+        // a real clock and a short timeout, so that validations reorder sessions and some expire meanwhile
+        AtomicLong offset = new AtomicLong();
+        SessionRegistry registry = new SessionRegistry(64, TimeUnit.MILLISECONDS, maxSessions,
+                () -> System.nanoTime() + offset.get());
+        AtomicInteger overCap = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                List<String> mine = new ArrayList<>();
+                for (int n = 0; n < 5_000; n++) {
+                    String session = registry.open(ivan);
+                    mine.add(session);
+                    if (registry.size() > maxSessions) {
+                        overCap.incrementAndGet();
+                    }
+                    if (n % 3 == 0) {
+                        registry.close(session);
+                    }
+                    registry.validate(mine.get(n / 2));
+                    if (n % 100 == 0) {
+                        registry.evictIdle();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, overCap.get());
+        int open = registry.size();
+        assertTrue(open > 0 && open <= maxSessions);
+        offset.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(open, registry.evictIdle());
+        assertEquals(0, registry.size());
+        assertNotNull(registry.validate(registry.open(ivan)));
+    }
+}
@@ -0,0 +1,109 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.controller.Controller;
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.ReservationDAO;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.entity.User;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+// reproducible synthetic inventory built by DataGenerator: the same size always produces the same users, hotels and rooms
+public class BenchmarkData {
+
+    public static final long SEED = 20240501L;
+    public static final int ROOMS_PER_HOTEL = 10;
+
+    private final int size;
+    private final HotelDAO hotelDAO = new HotelDAO(false);
+    private final UserDAO userDAO = new UserDAO();
+    private final Controller controller;
+    private final int hotelCount;
+    private final int cityCount;
+    // hotel h owns the consecutive room ids firstRoomId[h - 1] .. firstRoomId[h - 1] + roomCount[h - 1] - 1
+    private final int[] firstRoomId;
+    private final int[] roomCount;
+
+    public BenchmarkData(int size) {
+        this(size, false);
+    }
+
+    // optimisticBooking: see Controller(HotelDAO, UserDAO, ReservationDAO, boolean)
+    public BenchmarkData(int size, boolean optimisticBooking) {
+        this(size, optimisticBooking, Controller.DEFAULT_CACHE_CAPACITY);
+    }
+
+    public BenchmarkData(int size, boolean optimisticBooking, int cacheCapacity) {
+        this.size = size;
+        this.hotelCount = Math.max(1, size / ROOMS_PER_HOTEL);
+        this.cityCount = size / 1000 + 1;
+        this.firstRoomId = new int[this.hotelCount];
+        this.roomCount = new int[this.hotelCount];
+        DataGenerator generator = new DataGenerator(SEED)
+                .cities(this.cityCount)
+                .hotels(this.hotelCount)
+                .averageRoomsPerHotel(ROOMS_PER_HOTEL)
+                .users(size);
+        generator.forEachHotel(hotel -> {
+            List<Room> rooms = hotel.getRooms();
+            this.firstRoomId[hotel.getId() - 1] = rooms.get(0).getId();
+            this.roomCount[hotel.getId() - 1] = rooms.size();
+            this.hotelDAO.save(hotel);
+        });
+        generator.forEachUser(this.userDAO::save);
+        this.controller = new Controller(this.hotelDAO, this.userDAO, new ReservationDAO(), optimisticBooking,
+                cacheCapacity);
+    }
+
+    public static User newUser(int id, SplittableRandom random) {
+        return DataGenerator.newUser(id, random);
+    }
+
+    public static String hotelName(int hotelId) {
+        return DataGenerator.hotelName(hotelId);
+    }
+
+    public static String cityName(int cityIndex) {
+        return DataGenerator.cityName(cityIndex);
+    }
+
+    public static String email(int userId) {
+        return "user" + userId + "@i.ua";
+    }
+
+    // any int picks one of the hotel's rooms
+    public int roomCount(int hotelId) {
+        return this.roomCount[hotelId - 1];
+    }
+
+    public int roomId(int hotelId, int pick) {
+        return this.firstRoomId[hotelId - 1] + Math.floorMod(pick, this.roomCount[hotelId - 1]);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHotelCount() {
+        return hotelCount;
+    }
+
+    public int getCityCount() {
+        return cityCount;
+    }
+
+    public HotelDAO getHotelDAO() {
+        return hotelDAO;
+    }
+
+    public UserDAO getUserDAO() {
+        return userDAO;
+    }
+
+    public Controller getController() {
+        return controller;
+    }
+}
@@ -0,0 +1,75 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// "the TOP cheapest free rooms in a city with capacity >= 2": the price index against collecting every room and sorting
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class CheapestRoomsBenchmark {
+
+    private static final int TOP = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.data = new BenchmarkData(this.size);
+        this.random = new SplittableRandom(BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public List<Room> priceIndex() {
+        return this.data.getHotelDAO().findRoomList(new RoomQuery().inCity(randomCity()).capacityAtLeast(2)
+                .onlyFree().cheapestFirst().page(0, TOP));
+    }
+
+    @Benchmark
+    public List<Room> priceRangeIndex() {
+        int minPrice = 100 + this.random.nextInt(2000);
+        return this.data.getHotelDAO().findRoomList(new RoomQuery().inCity(randomCity())
+                .priceBetween(minPrice, minPrice + 200)
+                .onlyFree().cheapestFirst().page(0, TOP));
+    }
+
+    @Benchmark
+    public List<Room> allRoomsSorted() {
+        String city = randomCity();
+        return this.data.getHotelDAO().getAllRoom().stream()
+                .filter(room -> room.getUserReserved() == null && room.getCapacity() >= 2
+                        && city.equals(room.getHotel().getCityName()))
+                .sorted(Comparator.comparingInt(Room::getPrice))
+                .limit(TOP)
+                .collect(Collectors.toList());
+    }
+
+    private String randomCity() {
+        return BenchmarkData.cityName(this.random.nextInt(this.data.getCityCount()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.MappedSnapshot;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// startup cost: rebuilding the DAOs from a binary snapshot vs. only touching the mapped room records
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ColdStartBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData data = new BenchmarkData(this.size);
+        this.file = Files.createTempFile("inventory", ".snap");
+        MappedSnapshot.write(this.file, data.getHotelDAO(), data.getUserDAO());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Benchmark
+    public HotelDAO loadDAOs() throws IOException {
+        HotelDAO hotelDAO = new HotelDAO(false);
+        MappedSnapshot.open(this.file).loadInto(hotelDAO, new UserDAO());
+        return hotelDAO;
+    }
+
+    @Benchmark
+    public long scanMappedRooms() throws IOException {
+        MappedSnapshot snapshot = MappedSnapshot.open(this.file);
+        long free = 0;
+        for (int record = 0; record < snapshot.getRoomCount(); record++) {
+            if (snapshot.roomReserverId(record) == 0) {
+                free += snapshot.roomPrice(record);
+            }
+        }
+        return free;
+    }
+}
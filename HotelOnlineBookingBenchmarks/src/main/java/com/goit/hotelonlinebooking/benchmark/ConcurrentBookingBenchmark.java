@@ -0,0 +1,107 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.controller.AsyncController;
+import com.goit.hotelonlinebooking.controller.Controller;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// many request threads sharing one Controller, each with its own session
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Threads(8)
+public class ConcurrentBookingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        BenchmarkData data;
+        AsyncController async;
+        final AtomicInteger nextUser = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.data = new BenchmarkData(this.size);
+            this.async = new AsyncController(this.data.getController());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            this.async.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        String session;
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(Shared shared) {
+            int userId = shared.nextUser.incrementAndGet();
+            this.session = shared.data.getController().openSession(userId);
+            this.random = new SplittableRandom(BenchmarkData.SEED + userId);
+        }
+    }
+
+    @Benchmark
+    public Outcome bookAndCancel(Shared shared, Client client) {
+        Controller controller = shared.data.getController();
+        int hotelId = 1 + client.random.nextInt(shared.data.getHotelCount());
+        int roomId = shared.data.roomId(hotelId, client.random.nextInt(BenchmarkData.ROOMS_PER_HOTEL));
+        Outcome booked = controller.bookRoom(client.session, roomId, hotelId);
+        if (booked == Outcome.OK) {
+            controller.cancelReservation(client.session, roomId, hotelId);
+        }
+        return booked;
+    }
+
+    // the same through the per-hotel writer queues; the request thread only waits for its futures
+    @Benchmark
+    public Outcome bookAndCancelAsync(Shared shared, Client client) {
+        int hotelId = 1 + client.random.nextInt(shared.data.getHotelCount());
+        int roomId = shared.data.roomId(hotelId, client.random.nextInt(BenchmarkData.ROOMS_PER_HOTEL));
+        return shared.async.bookRoom(client.session, roomId, hotelId)
+                .thenCompose(booked -> booked == Outcome.OK
+                        ? shared.async.cancelReservation(client.session, roomId, hotelId).thenApply(cancelled -> booked)
+                        : CompletableFuture.completedFuture(booked))
+                .join();
+    }
+
+    // small dataset hot spot: every thread fights over the rooms of the first hotels
+    @Benchmark
+    public Outcome bookAndCancelContended(Shared shared, Client client) {
+        Controller controller = shared.data.getController();
+        int hotelId = 1 + client.random.nextInt(Math.min(4, shared.data.getHotelCount()));
+        int roomId = shared.data.roomId(hotelId, client.random.nextInt(BenchmarkData.ROOMS_PER_HOTEL));
+        Outcome booked = controller.bookRoom(client.session, roomId, hotelId);
+        if (booked == Outcome.OK) {
+            controller.cancelReservation(client.session, roomId, hotelId);
+        }
+        return booked;
+    }
+}
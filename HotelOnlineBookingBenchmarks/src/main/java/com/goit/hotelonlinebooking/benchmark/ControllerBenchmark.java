@@ -0,0 +1,125 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.controller.Controller;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ControllerBenchmark {
+
+    private static final int GROUP = 4;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private Controller controller;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.data = new BenchmarkData(this.size);
+        this.controller = this.data.getController();
+        this.controller.login(1);
+        this.random = new Random(BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public List<Room> freeRoomsByHotel() {
+        return this.controller.getFreeRoomsByHotel(BenchmarkData.hotelName(1 + this.random.nextInt(this.data.getHotelCount())));
+    }
+
+    @Benchmark
+    public List<Hotel> hotelsByCity() {
+        return this.controller.findHotelByCity(BenchmarkData.cityName(this.random.nextInt(this.data.getCityCount())));
+    }
+
+    @Benchmark
+    public Outcome bookAndCancel() {
+        int hotelId = 1 + this.random.nextInt(this.data.getHotelCount());
+        int roomId = this.data.roomId(hotelId, this.random.nextInt(BenchmarkData.ROOMS_PER_HOTEL));
+        Outcome booked = this.controller.bookRoom(roomId, 1 + this.random.nextInt(this.size), hotelId);
+        this.controller.cancelReservation(roomId, hotelId);
+        return booked;
+    }
+
+    // a group of rooms booked and cancelled one call per room, against the all-or-nothing batch calls below
+    @Benchmark
+    public int bookAndCancelGroupOneByOne() {
+        int hotelId = 1 + this.random.nextInt(this.data.getHotelCount());
+        int[] roomIds = group(hotelId);
+        int userId = 1 + this.random.nextInt(this.size);
+        int booked = 0;
+        for (int roomId : roomIds) {
+            if (this.controller.bookRoom(roomId, userId, hotelId) == Outcome.OK) {
+                booked++;
+            }
+        }
+        for (int roomId : roomIds) {
+            this.controller.cancelReservation(roomId, hotelId);
+        }
+        return booked;
+    }
+
+    @Benchmark
+    public Outcome bookAndCancelGroupBatch() {
+        int hotelId = 1 + this.random.nextInt(this.data.getHotelCount());
+        int[] roomIds = group(hotelId);
+        Outcome booked = this.controller.bookRooms(roomIds, 1 + this.random.nextInt(this.size), hotelId);
+        this.controller.cancelReservations(roomIds, hotelId);
+        return booked;
+    }
+
+    @Benchmark
+    public List findRoomByPriceFloorCapacity() {
+        Map<String, String> params = new HashMap<>();
+        // take the attributes of an existing room so the query always has at least one hit
+        List<Room> rooms = this.data.getHotelDAO().objectById(1 + this.random.nextInt(this.data.getHotelCount())).getRooms();
+        Room sample = rooms.get(this.random.nextInt(rooms.size()));
+        params.put("price", String.valueOf(sample.getPrice()));
+        params.put("floor", String.valueOf(sample.getFloor()));
+        params.put("capacity", String.valueOf(sample.getCapacity()));
+        return this.controller.findRoom(params);
+    }
+
+    @Benchmark
+    public List findRoomInCity() {
+        Map<String, String> params = new HashMap<>();
+        params.put("city", BenchmarkData.cityName(this.random.nextInt(this.data.getCityCount())));
+        params.put("capacity", String.valueOf(1 + this.random.nextInt(4)));
+        return this.controller.findRoom(params);
+    }
+
+    private int[] group(int hotelId) {
+        int[] roomIds = new int[Math.min(GROUP, this.data.roomCount(hotelId))];
+        int first = this.random.nextInt(this.data.roomCount(hotelId));
+        for (int i = 0; i < roomIds.length; i++) {
+            roomIds[i] = this.data.roomId(hotelId, first + i);
+        }
+        return roomIds;
+    }
+}
@@ -0,0 +1,73 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class DaoBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.data = new BenchmarkData(this.size);
+        this.random = new SplittableRandom(BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public User userById() {
+        return this.data.getUserDAO().objectById(1 + this.random.nextInt(this.size));
+    }
+
+    @Benchmark
+    public Hotel hotelById() {
+        return this.data.getHotelDAO().objectById(1 + this.random.nextInt(this.data.getHotelCount()));
+    }
+
+    @Benchmark
+    public List<User> userByEmail() {
+        return this.data.getUserDAO().findUserByEmail(BenchmarkData.email(1 + this.random.nextInt(this.size)));
+    }
+
+    @Benchmark
+    public boolean checkRegistration() {
+        return this.data.getUserDAO().checkRegistration(newCandidate());
+    }
+
+    // save and delete again so the dataset keeps its size across invocations
+    @Benchmark
+    public void registerAndDelete() {
+        User candidate = newCandidate();
+        this.data.getController().userRegistration(candidate);
+        this.data.getUserDAO().delete(candidate);
+    }
+
+    private User newCandidate() {
+        return BenchmarkData.newUser(this.size + 1 + this.random.nextInt(this.size), this.random);
+    }
+}
@@ -0,0 +1,71 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.NameDictionary;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// the heap taken by a generated hotel inventory, and what the city dictionary saves on it: the retained size of the
+// city Strings every hotel kept for itself before, as a snapshot or Codec load still decodes them, against one String
+// per city in NameDictionary.CITIES. Not a JMH benchmark; run it on its own with a fixed heap and a stop-the-world
+// collector so that the used heap after a full GC is stable:
+//   java -Xms4g -Xmx4g -XX:+UseSerialGC -cp target/benchmarks.jar \
+//       com.goit.hotelonlinebooking.benchmark.MemoryReport [hotels]
+public class MemoryReport {
+
+    private static final int DEFAULT_HOTELS = 1_000_000;
+
+    public static void main(String[] args) {
+        int hotelCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_HOTELS;
+        int cityCount = hotelCount / 100 + 1;
+
+        long empty = usedHeap();
+        HotelDAO hotelDAO = new HotelDAO(false);
+        new DataGenerator(BenchmarkData.SEED)
+                .cities(cityCount)
+                .hotels(hotelCount)
+                .averageRoomsPerHotel(BenchmarkData.ROOMS_PER_HOTEL)
+                .forEachHotel(hotelDAO::save);
+        long inventory = usedHeap() - empty;
+
+        // the references to the copies are not part of the saving: a hotel holds its city code in their place
+        List<Hotel> hotels = hotelDAO.getList();
+        String[] copies = new String[hotels.size()];
+        long references = usedHeap();
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = new String(hotels.get(i).getCityName().getBytes(StandardCharsets.UTF_8),
+                    StandardCharsets.UTF_8);
+        }
+        long duplicated = usedHeap() - references;
+
+        Set<String> hotelNames = new HashSet<>();
+        for (Hotel hotel : hotels) {
+            hotelNames.add(hotel.getHotelName());
+        }
+
+        System.out.printf("hotels                      %,d in %,d cities, %,d rooms%n", hotels.size(), cityCount,
+                hotelDAO.getAllRoom().size());
+        System.out.printf("inventory heap              %,d KB%n", inventory / 1024);
+        System.out.printf("city dictionary             %,d names%n", NameDictionary.CITIES.size());
+        System.out.printf("city Strings per hotel      %,d KB (%,d bytes a hotel)%n", duplicated / 1024,
+                duplicated / Math.max(1, copies.length));
+        System.out.printf("saved by the dictionary     %.1f%% of the inventory%n",
+                100.0 * duplicated / (inventory + duplicated));
+        System.out.printf("distinct hotel names        %,d of %,d hotels%n", hotelNames.size(), hotels.size());
+        Reference.reachabilityFence(copies);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
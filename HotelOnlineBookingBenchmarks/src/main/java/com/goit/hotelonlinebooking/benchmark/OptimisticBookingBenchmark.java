@@ -0,0 +1,113 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.controller.Controller;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// hotel lock versus a bare compare-and-set on the room: writers book and cancel the rooms of a few hotels while
+// readers list the free rooms of the same hotels. Each mode is run once read-mostly and once write-heavy.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class OptimisticBookingBenchmark {
+
+    // the hot spot every thread works on
+    private static final int HOTELS = 4;
+
+    @State(Scope.Group)
+    public static class Shared {
+
+        @Param({"locking", "optimistic"})
+        public String booking;
+
+        @Param({"1000"})
+        public int size;
+
+        BenchmarkData data;
+        final AtomicInteger nextUser = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.data = new BenchmarkData(this.size, "optimistic".equals(this.booking));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        String session;
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(Shared shared) {
+            int userId = shared.nextUser.incrementAndGet();
+            this.session = shared.data.getController().openSession(userId);
+            this.random = new SplittableRandom(BenchmarkData.SEED + userId);
+        }
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(6)
+    public List<Room> readMostlyFreeRooms(Shared shared, Client client) {
+        return freeRooms(shared, client);
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(2)
+    public Outcome readMostlyBookAndCancel(Shared shared, Client client) {
+        return bookAndCancel(shared, client);
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(2)
+    public List<Room> writeHeavyFreeRooms(Shared shared, Client client) {
+        return freeRooms(shared, client);
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(6)
+    public Outcome writeHeavyBookAndCancel(Shared shared, Client client) {
+        return bookAndCancel(shared, client);
+    }
+
+    private static List<Room> freeRooms(Shared shared, Client client) {
+        int hotelId = 1 + client.random.nextInt(Math.min(HOTELS, shared.data.getHotelCount()));
+        return shared.data.getController().getFreeRoomsByHotel(client.session, BenchmarkData.hotelName(hotelId));
+    }
+
+    private static Outcome bookAndCancel(Shared shared, Client client) {
+        Controller controller = shared.data.getController();
+        int hotelId = 1 + client.random.nextInt(Math.min(HOTELS, shared.data.getHotelCount()));
+        int roomId = shared.data.roomId(hotelId, client.random.nextInt(BenchmarkData.ROOMS_PER_HOTEL));
+        Outcome booked = controller.bookRoom(client.session, roomId, hotelId);
+        if (booked == Outcome.OK) {
+            controller.cancelReservation(client.session, roomId, hotelId);
+        }
+        return booked;
+    }
+}
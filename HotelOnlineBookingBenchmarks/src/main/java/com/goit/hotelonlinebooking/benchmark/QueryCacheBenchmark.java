@@ -0,0 +1,114 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.controller.Controller;
+import com.goit.hotelonlinebooking.controller.QueryCache;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.entity.Room;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// repeated searches with and without the Controller's query caches (cacheCapacity 0 turns them off). Nine searches
+// in ten go to a hot set of HOT hotels and cities; one request in WRITE_EVERY books and cancels a hot room, which
+// drops that hotel's cached free rooms. The hits, misses and evictions of both caches are reported next to the score
+// as JMH auxiliary counters, per iteration.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class QueryCacheBenchmark {
+
+    private static final int HOT = 64;
+    private static final int WRITE_EVERY = 20;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"0", "1024"})
+    public int cacheCapacity;
+
+    private BenchmarkData data;
+    private Controller controller;
+    private SplittableRandom random;
+    private int requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.data = new BenchmarkData(this.size, false, this.cacheCapacity);
+        this.controller = this.data.getController();
+        this.controller.login(1);
+        this.random = new SplittableRandom(BenchmarkData.SEED);
+    }
+
+    // the cache statistics of an iteration, summed over both caches
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CacheCounters {
+        public long cacheHits;
+        public long cacheMisses;
+        public long cacheEvictions;
+
+        @Setup(Level.Iteration)
+        public void reset(QueryCacheBenchmark benchmark) {
+            this.cacheHits = 0;
+            this.cacheMisses = 0;
+            this.cacheEvictions = 0;
+            benchmark.controller.getHotelsByCityCache().resetStats();
+            benchmark.controller.getFreeRoomsByHotelCache().resetStats();
+        }
+
+        @TearDown(Level.Iteration)
+        public void collect(QueryCacheBenchmark benchmark) {
+            for (QueryCache<?, ?> cache : List.of(benchmark.controller.getHotelsByCityCache(),
+                    benchmark.controller.getFreeRoomsByHotelCache())) {
+                this.cacheHits += cache.getHitCount();
+                this.cacheMisses += cache.getMissCount();
+                this.cacheEvictions += cache.getEvictionCount();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Room> freeRoomsByHotel(CacheCounters counters) {
+        if (++this.requests % WRITE_EVERY == 0) {
+            bookAndCancel();
+        }
+        return this.controller.getFreeRoomsByHotel(BenchmarkData.hotelName(pick(this.data.getHotelCount()) + 1));
+    }
+
+    @Benchmark
+    public List<Hotel> hotelsByCity(CacheCounters counters) {
+        return this.controller.findHotelByCity(BenchmarkData.cityName(pick(this.data.getCityCount())));
+    }
+
+    private void bookAndCancel() {
+        int hotelId = 1 + this.random.nextInt(Math.min(HOT, this.data.getHotelCount()));
+        int roomId = this.data.roomId(hotelId, this.random.nextInt(BenchmarkData.ROOMS_PER_HOTEL));
+        if (this.controller.bookRoom(roomId, 1, hotelId) == Outcome.OK) {
+            this.controller.cancelReservation(roomId, hotelId);
+        }
+    }
+
+    // 0 .. bound - 1, nine times in ten below HOT
+    private int pick(int bound) {
+        return this.random.nextInt(10) == 0 ? this.random.nextInt(bound) : this.random.nextInt(Math.min(HOT, bound));
+    }
+}
@@ -0,0 +1,118 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.controller.BookingService;
+import com.goit.hotelonlinebooking.controller.Controller;
+import com.goit.hotelonlinebooking.dao.Codec;
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.UserDAO;
+import com.goit.hotelonlinebooking.dao.WalStorage;
+import com.goit.hotelonlinebooking.entity.Hotel;
+import com.goit.hotelonlinebooking.metrics.Outcome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// load test for BookingService: a burst of REQUESTS concurrent book-and-cancel requests against a WAL-backed
+// HotelDAO, so every booking blocks on a group-committed sync. executor=virtual runs one virtual thread per request;
+// executor=platform runs the same requests on a fixed pool of PLATFORM_THREADS threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class RequestExecutorBenchmark {
+
+    private static final int REQUESTS = 10_000;
+    private static final int PLATFORM_THREADS = 64;
+    private static final int HOTELS = 1_000;
+    private static final int USERS = 1_000;
+
+    @Param({"virtual", "platform"})
+    public String executor;
+
+    private Path directory;
+    private WalStorage<Hotel> storage;
+    private BookingService service;
+    private String[] sessions;
+    private int[] firstRoomId;
+    private int[] roomCount;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("wal");
+        UserDAO userDAO = new UserDAO();
+        this.storage = new WalStorage<>(this.directory, "hotels", Codec.hotels(userDAO::objectById));
+        HotelDAO hotelDAO = new HotelDAO(this.storage, false);
+        this.firstRoomId = new int[HOTELS];
+        this.roomCount = new int[HOTELS];
+        DataGenerator generator = new DataGenerator(BenchmarkData.SEED).cities(10).hotels(HOTELS).users(USERS);
+        generator.forEachUser(userDAO::save);
+        generator.forEachHotel(hotel -> {
+            this.firstRoomId[hotel.getId() - 1] = hotel.getRooms().get(0).getId();
+            this.roomCount[hotel.getId() - 1] = hotel.getRooms().size();
+            hotelDAO.save(hotel);
+        });
+
+        ExecutorService requests = "virtual".equals(this.executor) ? BookingService.newRequestExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+        Controller controller = new Controller(hotelDAO, userDAO);
+        this.service = new BookingService(controller, requests);
+        this.sessions = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            this.sessions[i] = controller.openSession(i + 1);
+        }
+        this.random = new SplittableRandom(BenchmarkData.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.service.close();
+        this.storage.close();
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int bookAndCancelBurst() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            String session = this.sessions[this.random.nextInt(USERS)];
+            int hotel = this.random.nextInt(HOTELS);
+            int hotelId = hotel + 1;
+            int roomId = this.firstRoomId[hotel] + this.random.nextInt(this.roomCount[hotel]);
+            futures[i] = this.service.bookRoom(session, roomId, hotelId)
+                    .thenCompose(booked -> booked == Outcome.OK
+                            ? this.service.cancelReservation(session, roomId, hotelId)
+                            : CompletableFuture.completedFuture(booked));
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures.length;
+    }
+}
@@ -0,0 +1,89 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.dao.DataGenerator;
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// object rooms behind sorted indexes vs. the columnar room store, sequential vs. fork/join, on the same inventory
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class RoomStoreBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"objects", "columns"})
+    public String layout;
+
+    // search on the calling thread only, or on the common fork/join pool from HotelDAO's default threshold on
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    // candidates per fork/join task; try others with -p chunk=1024,4096,16384
+    @Param({"4096"})
+    public int chunk;
+
+    private HotelDAO hotelDAO;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.hotelDAO = new HotelDAO(false, this.layout.equals("columns"));
+        new DataGenerator(BenchmarkData.SEED)
+                .cities(this.size / 1000 + 1)
+                .hotels(Math.max(1, this.size / BenchmarkData.ROOMS_PER_HOTEL))
+                .averageRoomsPerHotel(BenchmarkData.ROOMS_PER_HOTEL)
+                .forEachHotel(this.hotelDAO::save);
+        this.hotelDAO.setParallelThreshold(this.parallel ? HotelDAO.DEFAULT_PARALLEL_THRESHOLD : Integer.MAX_VALUE);
+        this.hotelDAO.setParallelChunk(this.chunk);
+        this.random = new SplittableRandom(BenchmarkData.SEED);
+    }
+
+    // about a fifth of all rooms match
+    @Benchmark
+    public List<Room> broadPriceRange() {
+        int minPrice = 200 + this.random.nextInt(400);
+        return this.hotelDAO.findRoomList(new RoomQuery().priceBetween(minPrice, minPrice + 150).capacityAtLeast(2));
+    }
+
+    @Benchmark
+    public List<Room> narrowQuery() {
+        return this.hotelDAO.findRoomList(new RoomQuery().price(300 + 10 * this.random.nextInt(60))
+                .capacity(1 + this.random.nextInt(4)).floor(1).page(0, 20));
+    }
+
+    @Benchmark
+    public int countFreeRooms() {
+        return this.hotelDAO.countRooms(new RoomQuery().capacityAtLeast(1 + this.random.nextInt(4)).onlyFree());
+    }
+
+    @Benchmark
+    public long totalPriceOfAllRooms() {
+        long total = 0;
+        for (Room room : this.hotelDAO.getAllRoom()) {
+            total += room.getPrice();
+        }
+        return total;
+    }
+}
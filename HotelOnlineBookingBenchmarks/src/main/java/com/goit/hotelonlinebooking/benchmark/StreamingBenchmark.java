@@ -0,0 +1,106 @@
+package com.goit.hotelonlinebooking.benchmark;
+
+import com.goit.hotelonlinebooking.dao.HotelDAO;
+import com.goit.hotelonlinebooking.dao.RoomCursor;
+import com.goit.hotelonlinebooking.dao.RoomQuery;
+import com.goit.hotelonlinebooking.entity.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// collected lists against the lazy walks: the first rooms of a broad query, a pass over every room, and all pages of
+// a city by offset against one cursor. Run with -prof gc to see the allocation per operation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class StreamingBenchmark {
+
+    private static final int FIRST = 20;
+    private static final int PAGE = 50;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private HotelDAO hotelDAO;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.data = new BenchmarkData(this.size);
+        this.hotelDAO = this.data.getHotelDAO();
+        this.random = new SplittableRandom(BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public List<Room> firstRoomsFromList() {
+        return this.hotelDAO.findRoomList(new RoomQuery().capacityAtLeast(2).onlyFree()).subList(0, FIRST);
+    }
+
+    @Benchmark
+    public List<Room> firstRoomsFromStream() {
+        return this.hotelDAO.streamRooms(new RoomQuery().capacityAtLeast(2).onlyFree()).limit(FIRST)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public long priceSumFromList() {
+        long sum = 0;
+        for (Room room : this.hotelDAO.getAllRoom()) {
+            sum += room.getPrice();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long priceSumFromStream() {
+        return this.hotelDAO.streamAllRooms().mapToLong(Room::getPrice).sum();
+    }
+
+    @Benchmark
+    public int pagesByOffset() {
+        String city = randomCity();
+        int rooms = 0;
+        for (int page = 0; ; page++) {
+            List<Room> found = this.hotelDAO.findRoomList(new RoomQuery().inCity(city).onlyFree().page(page, PAGE));
+            rooms += found.size();
+            if (found.size() < PAGE) {
+                return rooms;
+            }
+        }
+    }
+
+    @Benchmark
+    public int pagesByCursor() {
+        String city = randomCity();
+        RoomCursor cursor = this.hotelDAO.openCursor(new RoomQuery().inCity(city).onlyFree());
+        List<Room> page = new ArrayList<>(PAGE);
+        while (cursor.hasNext()) {
+            page.clear();
+            cursor.nextPage(PAGE, page);
+        }
+        return cursor.getPosition();
+    }
+
+    private String randomCity() {
+        return BenchmarkData.cityName(this.random.nextInt(this.data.getCityCount()));
+    }
+}